@@ -10,9 +10,14 @@ package application;
 
 import java.util.Scanner;
 
+import structures.AllPairsShortestPaths;
+import structures.BidirectionalDijkstra;
+import structures.DynamicAllPairs;
+import structures.FloydAllPairs;
+import structures.IndexedWeightedGraph;
+import structures.JohnsonAllPairs;
 import structures.Vertex;
 import structures.WeightedAdjMatrixGraph;
-import structures.WeightedGraph;
 
 /**
  * A program to display path costs in a weighted directed graph.
@@ -27,10 +32,37 @@ public final class DisplayCostsMain {
    */
   private static final int QUIT_OPTION = 0;
 
+  /**
+   * The number of threads used to find all shortest paths; set with
+   * <code>-Dapsp.parallelism=N</code>. Defaults to one per processor.
+   */
+  private static final int APSP_PARALLELISM =
+      Integer.getInteger("apsp.parallelism", Runtime.getRuntime().availableProcessors());
+
+  /**
+   * The all-pairs shortest path algorithm, chosen with
+   * <code>-Dapsp=floyd</code> (the default) or <code>-Dapsp=johnson</code>.
+   * Johnson's algorithm is faster on sparse graphs.
+   */
+  private static final String APSP = System.getProperty("apsp", "floyd");
+
   /**
    * The graph used in this program.
    */
-  private final WeightedGraph<String> my_graph;
+  private final IndexedWeightedGraph<String> my_graph;
+
+  /**
+   * The cost and first hop of a shortest route between each pair of cities,
+   * indexed like the array returned by getVertices(). Road changes made
+   * through it update the table without finding every route again.
+   */
+  private DynamicAllPairs<String> my_paths;
+
+  /**
+   * Answers the point-to-point distance queries; built once the graph is
+   * loaded.
+   */
+  private BidirectionalDijkstra<String> my_router;
 
   /**
    * Private constructor to inhibit external instantiation.
@@ -48,11 +80,27 @@ public final class DisplayCostsMain {
     new DisplayCostsMain().start();
   }
 
+  /**
+   * Get the all-pairs shortest path algorithm named by <code>APSP</code>.
+   * 
+   * @return the algorithm to use
+   * @throws IllegalArgumentException if the name is not known
+   */
+  private static AllPairsShortestPaths<String> allPairsShortestPaths() {
+    if ("johnson".equals(APSP)) {
+      return new JohnsonAllPairs<String>(APSP_PARALLELISM);
+    } else if ("floyd".equals(APSP)) {
+      return new FloydAllPairs<String>(APSP_PARALLELISM);
+    }
+    throw new IllegalArgumentException("unknown apsp: " + APSP);
+  }
+
   /**
    * Calls various methods to provide program functionality.
    */
   private void start() {
     FileIO.createGraphFromFile(my_graph);
+    my_router = new BidirectionalDijkstra<String>(my_graph);
     final Vertex<String>[] vertices = my_graph.getVertices();
 
     // comment in the next line to display a representation of the graph
@@ -68,16 +116,9 @@ public final class DisplayCostsMain {
     diameter = 0;
     // add code here to set diameter correctly or write a helper method to do it
     // added code by Raymond Luu
-    final double[][] shortest_paths = WeightedAdjMatrixGraph.floydShortestPaths(
-                                                  (WeightedAdjMatrixGraph<String>) my_graph);
-    
-    for (int i = 0; i < my_graph.getNumberOfVertices(); i++) {
-      for (int j = 0; j < i; j++) {
-        if (shortest_paths[i][j] >= diameter) {
-          diameter = shortest_paths[i][j];
-        }
-      }
-    }
+    // record the routes too, so they can be shown without another search
+    my_paths = new DynamicAllPairs<String>(my_graph, allPairsShortestPaths());
+    diameter = my_paths.getDiameter();
     // End of added code
     System.out.println("The diameter of this graph is : " + diameter);
 
@@ -105,7 +146,7 @@ public final class DisplayCostsMain {
         run_again = false;
       } else {
         System.out.println(vertices[from - 1] + " has degree " 
-                           + my_graph.getNeighbors(vertices[from - 1]).size() + ".");
+                           + my_graph.degree(my_graph.indexOf(vertices[from - 1])) + ".");
 
         // get the user's choice for an end city
         to =
@@ -117,6 +158,7 @@ public final class DisplayCostsMain {
         run_again = false;
       } else {
         displayPathLength(vertices[from - 1], vertices[to - 1]);
+        displayRoute(vertices, from - 1, to - 1);
       }
     }
     System.out.println("\nThanks for trying this program. Have a nice day.");
@@ -183,11 +225,36 @@ public final class DisplayCostsMain {
     path_length = 0;
     // add code here to set path_length correctly
     // added code by Raymond Luu
-    path_length = (int) ((WeightedAdjMatrixGraph<String>) my_graph).minimalPath(point_1, 
-                                                                                point_2);
+    path_length = (int) my_router.minimalPath(point_1, point_2);
     // End of code
     System.out.println("The distance from " + point_1 + " to " + point_2 + " is: "
                        + path_length);
   }
 
+  /**
+   * Displays the cities on a shortest route from one city to another.
+   * 
+   * @param the_vertices the cities, in the order returned by getVertices()
+   * @param the_from the index of the start city
+   * @param the_to the index of the end city
+   */
+  private void displayRoute(final Vertex<String>[] the_vertices, final int the_from,
+                            final int the_to) {
+    final int[] route = WeightedAdjMatrixGraph.floydRoute(my_paths.getNextHops(),
+                                                            the_from, the_to);
+    if (route.length == 0) {
+      System.out.println("There is no route from " + the_vertices[the_from] + " to "
+                         + the_vertices[the_to] + ".");
+      return;
+    }
+    final StringBuilder sb = new StringBuilder("The route is: ");
+    for (int hop = 0; hop < route.length; hop++) {
+      if (hop > 0) {
+        sb.append(" -> ");
+      }
+      sb.append(the_vertices[route[hop]]);
+    }
+    System.out.println(sb);
+  }
+
 }
@@ -6,8 +6,10 @@ package application;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
 import java.util.Scanner;
 
+import structures.AdjMatrixDiGraph;
 import structures.Vertex;
 import structures.WeightedGraph;
 
@@ -20,6 +22,10 @@ import structures.WeightedGraph;
  * the graph An edge weight of -1 represents that there is no such edge in the
  * graph
  * 
+ * The file may end with n more lines, each holding the latitude and longitude
+ * in degrees of the vertex with the same position; these are optional and
+ * are stored with Vertex.setLocation().
+ * 
  * @author Alan Fowler
  * @version Spring 2011
  */
@@ -60,19 +66,52 @@ public final class FileIO {
     final Vertex<String>[] vertices = new Vertex[size];
     for (int index = 0; index < size; index++) {
       vertices[index] = new Vertex<String>(file_input.nextLine());
-      the_graph.addVertex(vertices[index]);
     }
 
-    // read the edge weights
+    // read the edge weights straight into an edge list; the matrix is
+    // symmetric, so keep only the lower triangle - do not duplicate edges
+    int[] from = new int[size];
+    int[] to = new int[size];
+    double[] weights = new double[size];
+    int edges = 0;
     for (int row = 0; row < size; row++) {
       for (int col = 0; col < size; col++) { // read ALL data
         final int weight = file_input.nextInt();
-        if (weight > 0 && col < row) { // add a new edge - do not duplicate
-                                       // edges
-          the_graph.addEdge(vertices[row], weight, vertices[col]);
+        if (weight > 0 && col < row) {
+          if (edges == from.length) {
+            from = Arrays.copyOf(from, Math.max(1, 2 * edges));
+            to = Arrays.copyOf(to, from.length);
+            weights = Arrays.copyOf(weights, from.length);
+          }
+          from[edges] = row;
+          to[edges] = col;
+          weights[edges++] = weight;
         }
       }
     }
+    from = Arrays.copyOf(from, edges);
+    to = Arrays.copyOf(to, edges);
+    weights = Arrays.copyOf(weights, edges);
+
+    // read the optional vertex locations
+    if (file_input.hasNextDouble()) {
+      for (int index = 0; index < size; index++) {
+        final double latitude = file_input.nextDouble();
+        vertices[index].setLocation(latitude, file_input.nextDouble());
+      }
+    }
+
+    if (the_graph instanceof AdjMatrixDiGraph) {
+      // load every vertex and edge at once rather than one by one
+      ((AdjMatrixDiGraph<String>) the_graph).addAll(vertices, from, to, weights);
+    } else {
+      for (int index = 0; index < size; index++) {
+        the_graph.addVertex(vertices[index]);
+      }
+      for (int edge = 0; edge < edges; edge++) {
+        the_graph.addEdge(vertices[from[edge]], weights[edge], vertices[to[edge]]);
+      }
+    }
 
   }
 
@@ -0,0 +1,162 @@
+/*
+ * FloydBenchmark TCSS 342 Assignment 5
+ */
+
+package application;
+
+import java.util.Random;
+
+import structures.CompactFloydWarshall;
+import structures.FloydWarshall;
+
+/**
+ * Times the Floyd-Warshall loop used by
+ * <code>WeightedAdjMatrixGraph.floydShortestPaths()</code> against the flat,
+ * the cache-blocked and the parallel blocked versions in
+ * <code>FloydWarshall</code> on random graphs, and the blocked loop on
+ * <code>float</code> and <code>int</code> weights in
+ * <code>CompactFloydWarshall</code>. The parallel version uses one thread per
+ * processor.
+ * 
+ * Usage: <code>java application.FloydBenchmark [tile] [n ...]</code>. The
+ * default is tile 64 and n = 1000, 4000 and 8000. An 8000 vertex graph needs
+ * four 512 MB matrices and two 256 MB ones, so run with <code>-Xmx4g</code> or more.
+ */
+public final class FloydBenchmark {
+
+  /**
+   * The graph sizes timed when none are given.
+   */
+  private static final int[] DEFAULT_SIZES = {1000, 4000, 8000};
+
+  /**
+   * The chance that any given edge exists.
+   */
+  private static final double EDGE_DENSITY = 0.05;
+
+  /**
+   * Private constructor to inhibit external instantiation.
+   */
+  private FloydBenchmark() {
+    // do not instantiate objects of this class
+  }
+
+  /**
+   * The start point for the program.
+   * 
+   * @param the_args the tile size followed by the graph sizes, all optional
+   */
+  public static void main(final String[] the_args) {
+    final int tile = the_args.length > 0 ? Integer.parseInt(the_args[0])
+                                         : FloydWarshall.DEFAULT_TILE;
+    int[] sizes = DEFAULT_SIZES;
+    if (the_args.length > 1) {
+      sizes = new int[the_args.length - 1];
+      for (int index = 1; index < the_args.length; index++) {
+        sizes[index - 1] = Integer.parseInt(the_args[index]);
+      }
+    }
+
+    System.out.printf("%8s %12s %12s %12s %13s %12s %12s %9s\n", "n", "rows (ms)",
+                      "flat (ms)", "blocked (ms)", "parallel (ms)", "float (ms)", "int (ms)",
+                      "speedup");
+    for (int n : sizes) {
+      final double[] source = randomMatrix(n, new Random(n));
+      final float[] floats = CompactFloydWarshall.toFloat(source);
+      final int[] ints = CompactFloydWarshall.toInt(source);
+
+      // the double[][] loop from WeightedAdjMatrixGraph.floydShortestPaths()
+      final double[][] rows = new double[n][n];
+      for (int i = 0; i < n; i++) {
+        System.arraycopy(source, i * n, rows[i], 0, n);
+      }
+      long start = System.nanoTime();
+      rowsLoop(rows);
+      final long rowsTime = System.nanoTime() - start;
+
+      final double[] flat = source.clone();
+      start = System.nanoTime();
+      FloydWarshall.simple(flat, n);
+      final long flatTime = System.nanoTime() - start;
+
+      final double[] blocked = source.clone();
+      start = System.nanoTime();
+      FloydWarshall.blocked(blocked, n, tile);
+      final long blockedTime = System.nanoTime() - start;
+
+      final double[] parallel = source;
+      start = System.nanoTime();
+      FloydWarshall.parallel(parallel, n, Runtime.getRuntime().availableProcessors());
+      final long parallelTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      CompactFloydWarshall.blocked(floats, n, tile);
+      final long floatTime = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      CompactFloydWarshall.blocked(ints, n, tile);
+      final long intTime = System.nanoTime() - start;
+
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          if (rows[i][j] != blocked[i * n + j] || flat[i * n + j] != blocked[i * n + j]
+              || parallel[i * n + j] != blocked[i * n + j]
+              || floats[i * n + j] != (float) blocked[i * n + j]
+              || ints[i * n + j] != (int) Math.min(blocked[i * n + j],
+                                                   CompactFloydWarshall.INT_NO_EDGE)) {
+            throw new IllegalStateException("results differ at " + i + ", " + j);
+          }
+        }
+      }
+      System.out.printf("%8d %12d %12d %12d %13d %12d %12d %8.2fx\n", n,
+                        rowsTime / 1000000, flatTime / 1000000, blockedTime / 1000000,
+                        parallelTime / 1000000, floatTime / 1000000, intTime / 1000000,
+                        (double) rowsTime / parallelTime);
+    }
+  }
+
+  /**
+   * Build the flat distance matrix of a random directed graph.
+   * 
+   * @param the_size the number of vertices
+   * @param the_random the source of edges and weights
+   * @return the n by n row-major matrix
+   */
+  private static double[] randomMatrix(final int the_size, final Random the_random) {
+    final double[] dist = new double[the_size * the_size];
+    for (int i = 0; i < the_size; i++) {
+      for (int j = 0; j < the_size; j++) {
+        if (i == j) {
+          dist[i * the_size + j] = 0.0;
+        } else if (the_random.nextDouble() < EDGE_DENSITY) {
+          dist[i * the_size + j] = 1 + the_random.nextInt(500);
+        } else {
+          dist[i * the_size + j] = Double.POSITIVE_INFINITY;
+        }
+      }
+    }
+    return dist;
+  }
+
+  /**
+   * The Floyd-Warshall loop of WeightedAdjMatrixGraph.floydShortestPaths(),
+   * which reads d(i, k) once per row and skips rows that cannot reach k.
+   * 
+   * @param the_paths the matrix to update in place
+   */
+  private static void rowsLoop(final double[][] the_paths) {
+    for (int k = 0; k < the_paths.length; k++) {
+      final double[] row_k = the_paths[k];
+      for (int i = 0; i < the_paths.length; i++) {
+        final double[] row_i = the_paths[i];
+        final double via_k = row_i[k];
+        if (via_k == Double.POSITIVE_INFINITY) {
+          continue;
+        }
+        for (int j = 0; j < row_i.length; j++) {
+          row_i[j] = Math.min(row_i[j], via_k + row_k[j]);
+        }
+      }
+    }
+  }
+}
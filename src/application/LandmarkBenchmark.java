@@ -0,0 +1,142 @@
+/*
+ * LandmarkBenchmark TCSS 342 Assignment 5
+ */
+
+package application;
+
+import java.util.Random;
+
+import structures.AStarEngine;
+import structures.CompressedSparseRowGraph;
+import structures.DijkstraEngine;
+import structures.LandmarkHeuristic;
+import structures.Vertex;
+import structures.WeightedAdjMatrixGraph;
+
+/**
+ * Compares point-to-point queries by Dijkstra's algorithm against A* guided by
+ * a <code>LandmarkHeuristic</code> (ALT) on square grids with random road
+ * lengths. For each grid it reports the time to choose the landmarks, the
+ * size of their distance tables, the average number of vertices each query
+ * settled and the speedup of ALT over Dijkstra.
+ * 
+ * Usage: <code>java application.LandmarkBenchmark [k] [side ...]</code>. The
+ * default is 16 landmarks and grids of side 20, 40 and 60. The grids are built
+ * as adjacency matrices before being compressed, so a side of 60 needs about
+ * 100 MB.
+ */
+public final class LandmarkBenchmark {
+
+  /**
+   * The grid sides timed when none are given.
+   */
+  private static final int[] DEFAULT_SIDES = {20, 40, 60};
+
+  /**
+   * The number of landmarks when none is given.
+   */
+  private static final int DEFAULT_LANDMARKS = 16;
+
+  /**
+   * The number of random queries timed on each grid.
+   */
+  private static final int QUERIES = 500;
+
+  /**
+   * Private constructor to inhibit external instantiation.
+   */
+  private LandmarkBenchmark() {
+    // do not instantiate objects of this class
+  }
+
+  /**
+   * The start point for the program.
+   * 
+   * @param the_args the number of landmarks followed by the grid sides, all
+   *          optional
+   */
+  public static void main(final String[] the_args) {
+    final int landmarks = the_args.length > 0 ? Integer.parseInt(the_args[0])
+                                              : DEFAULT_LANDMARKS;
+    int[] sides = DEFAULT_SIDES;
+    if (the_args.length > 1) {
+      sides = new int[the_args.length - 1];
+      for (int index = 1; index < the_args.length; index++) {
+        sides[index - 1] = Integer.parseInt(the_args[index]);
+      }
+    }
+
+    System.out.printf("%8s %4s %13s %11s %15s %11s %15s %11s %9s\n", "n", "k",
+                      "landmark (ms)", "table (KB)", "dijkstra settled", "dijkstra (ms)",
+                      "alt settled", "alt (ms)", "speedup");
+    for (int side : sides) {
+      final Random random = new Random(side);
+      final CompressedSparseRowGraph<String> grid =
+          new CompressedSparseRowGraph<String>(randomGrid(side, random));
+      final int n = grid.getNumberOfVertices();
+
+      long start = System.nanoTime();
+      final LandmarkHeuristic heuristic = new LandmarkHeuristic(grid, landmarks);
+      final long landmarkTime = System.nanoTime() - start;
+
+      final DijkstraEngine<String> engine = new DijkstraEngine<String>(grid);
+      final AStarEngine<String> alt = new AStarEngine<String>(grid, heuristic);
+      final int[] sources = new int[QUERIES];
+      final int[] dests = new int[QUERIES];
+      for (int query = 0; query < QUERIES; query++) {
+        sources[query] = random.nextInt(n);
+        dests[query] = random.nextInt(n);
+      }
+
+      final double[] costs = new double[QUERIES];
+      long dijkstraSettled = 0;
+      start = System.nanoTime();
+      for (int query = 0; query < QUERIES; query++) {
+        costs[query] = engine.distance(sources[query], dests[query]);
+        dijkstraSettled += engine.getSettledCount();
+      }
+      final long dijkstraTime = System.nanoTime() - start;
+
+      long altSettled = 0;
+      start = System.nanoTime();
+      for (int query = 0; query < QUERIES; query++) {
+        if (alt.distance(sources[query], dests[query]) != costs[query]) {
+          throw new IllegalStateException("results differ for query " + query);
+        }
+        altSettled += alt.getSettledCount();
+      }
+      final long altTime = System.nanoTime() - start;
+
+      System.out.printf("%8d %4d %13d %11d %15d %11d %15d %11d %8.2fx\n", n, landmarks,
+                        landmarkTime / 1000000, heuristic.getMemoryBytes() / 1024,
+                        dijkstraSettled / QUERIES, dijkstraTime / 1000000,
+                        altSettled / QUERIES, altTime / 1000000,
+                        (double) dijkstraTime / altTime);
+    }
+  }
+
+  /**
+   * Build a square grid whose edges have random lengths from 1 to 9.
+   * 
+   * @param the_side the number of vertices along each side
+   * @param the_random the source of edge lengths
+   * @return the grid
+   */
+  private static WeightedAdjMatrixGraph<String> randomGrid(final int the_side,
+                                                           final Random the_random) {
+    final WeightedAdjMatrixGraph<String> grid = new WeightedAdjMatrixGraph<String>();
+    @SuppressWarnings("unchecked")
+    final Vertex<String>[] cells = (Vertex<String>[]) new Vertex<?>[the_side * the_side];
+    for (int index = 0; index < cells.length; index++) {
+      cells[index] = new Vertex<String>("G" + index);
+      grid.addVertex(cells[index]);
+      if (index % the_side > 0) {
+        grid.addEdge(cells[index - 1], 1 + the_random.nextInt(9), cells[index]);
+      }
+      if (index >= the_side) {
+        grid.addEdge(cells[index - the_side], 1 + the_random.nextInt(9), cells[index]);
+      }
+    }
+    return grid;
+  }
+}
@@ -0,0 +1,56 @@
+
+package structures;
+
+/**
+ * A* search: Dijkstra's algorithm with the frontier ordered by distance so
+ * far plus a <code>Heuristic</code> estimate of the distance still to go.
+ * Slots that lead toward the destination are settled first, so with a good
+ * estimate a query settles a fraction of the slots Dijkstra's algorithm
+ * would. With a consistent estimate the costs found are the same.
+ * 
+ * The estimate only applies to point-to-point queries; a search with no
+ * destination, such as <code>shortestPathTree()</code>, is plain Dijkstra.
+ * Use <code>getSettledCount()</code> to see how much of the graph a query
+ * explored.
+ */
+public class AStarEngine<T> extends DijkstraEngine<T> {
+
+  /**
+   * Estimates the distance from a slot to the destination.
+   */
+  private final Heuristic heuristic;
+
+  /**
+   * The destination of the current query, or -1 if it has none.
+   */
+  private int target = -1;
+
+  /**
+   * Constructor. Create an engine for <code>graph</code> guided by
+   * <code>heuristic</code>.
+   * 
+   * @param graph The graph to search; must not be <code>null</code>.
+   * @param heuristic A consistent estimate of the distance between slots of
+   *          <code>graph</code>; must not be <code>null</code>.
+   * @throws IllegalArgumentException if either argument is
+   *           <code>null</code>.
+   */
+  public AStarEngine(final IndexedWeightedGraph<T> graph, final Heuristic heuristic) {
+    super(graph);
+    if (heuristic == null) {
+      throw new IllegalArgumentException("null heuristic");
+    }
+    this.heuristic = heuristic;
+  }
+
+  @Override
+  protected void search(final int src, final int dest) {
+    target = dest;
+    super.search(src, dest);
+  }
+
+  @Override
+  protected double priority(final int slot, final double distance) {
+    return target == -1 ? distance : distance + heuristic.estimate(slot, target);
+  }
+}
@@ -8,26 +8,41 @@ package structures;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An implementation of the <code>Graph</code> interface for a directed graph
  * using an adjacency matrix to indicate the presence/absence of edges
  * connecting vertices in the graph.
  */
-public class AdjMatrixDiGraph<T> implements Graph<T> {
+public class AdjMatrixDiGraph<T> implements IndexedGraph<T> {
   
+  /**
+   * The default initial capacity (number of vertex slots) of a graph.
+   */
   protected static int SIZE = 10;
 
+  /**
+   * The value weighted subclasses store in their weight matrix to mark that
+   * there is no edge between two slots.
+   */
+  protected static final double NO_EDGE = Double.POSITIVE_INFINITY;
+
   protected int numberOfVertices;
 
   protected int numberOfEdges;
 
   /**
-   * adjMatrix[i][j] = 1; an edge exists FROM vertex i TO vertex j
-   * adjMatrix[i][j] = 0; NO edge exists from vertex i to vertex j.
+   * adjMatrix.get(i, j) is true; an edge exists FROM vertex i TO vertex j
+   * adjMatrix.get(i, j) is false; NO edge exists from vertex i to vertex j.
+   * Each row is packed 64 edges to a word. Weighted subclasses record edges in
+   * their weight matrix instead and leave this <code>null</code>.
    */
-  protected int[][] adjMatrix;
+  protected BitMatrix adjMatrix;
 
   /**
    * Stores the vertices that are part of this graph. There is no requirement
@@ -37,19 +52,55 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
   protected Vertex<T>[] vertices;
 
   /**
-   * v1Pos and v2Pos represent a position in adjMatrix. This class and
-   * subclasses use it to access an edge.
+   * Maps each vertex in this graph to its position in vertices, so a vertex can
+   * be found without scanning the array. Kept in sync by addVertex() and
+   * removeVertex().
+   */
+  protected Map<Vertex<T>, Integer> vertexIndex;
+
+  /**
+   * Every slot at or above highWaterMark has never held a vertex (or was
+   * released by compact() or trimToSize()), so it has no edges.
+   */
+  protected int highWaterMark;
+
+  /**
+   * A stack of the free slots below highWaterMark. The top of the stack is at
+   * freeSlots[freeCount - 1].
+   */
+  protected int[] freeSlots;
+
+  /**
+   * The number of slots on the freeSlots stack.
    */
-  protected int v1Pos, v2Pos;
+  protected int freeCount;
 
   /**
    * Constructor. Create an empty instance of a directed graph.
    */
   public AdjMatrixDiGraph() {
+    this(AdjMatrixDiGraph.SIZE);
+  }
+
+  /**
+   * Constructor. Create an empty instance of a directed graph with room for
+   * <code>initialCapacity</code> vertices before the backing arrays must grow.
+   * 
+   * @param initialCapacity The number of vertex slots to allocate up front.
+   * @throws IllegalArgumentException if <code>initialCapacity</code> < 0.
+   */
+  public AdjMatrixDiGraph(final int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("capacity must be >= 0");
+    }
     this.numberOfVertices = 0;
     this.numberOfEdges = 0;
-    this.adjMatrix = new int[AdjMatrixDiGraph.SIZE][AdjMatrixDiGraph.SIZE];
-    this.vertices = new Vertex[AdjMatrixDiGraph.SIZE];
+    this.vertices = new Vertex[initialCapacity];
+    this.vertexIndex = new HashMap<Vertex<T>, Integer>();
+    this.highWaterMark = 0;
+    this.freeSlots = new int[0];
+    this.freeCount = 0;
+    resizeEdges(initialCapacity);
   }
 
   /**
@@ -67,15 +118,34 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
    */
   @Override
   public void addEdge(final Vertex<T> v1, final Vertex<T> v2) {
-    v1Pos = getVerticesIndexFor(v1);
-    v2Pos = getVerticesIndexFor(v2);
+    insertEdge(v1, 1.0, v2);
+  }
+
+  /**
+   * Add an edge with weight <code>weight</code> connecting vertex
+   * <code>v1</code> to <code>v2</code>. Unweighted graphs ignore the weight.
+   * 
+   * @param v1 The source vertex; must not be <code>null</code> and must be a
+   *          vertex in this graph.
+   * @param weight The weight of the edge (NOT VALIDATED).
+   * @param v2 The destination vertex; must not be <code>null</code> and must be
+   *          a vertex in this graph.
+   * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
+   *           <code>null</code>, are not in this graph or if the edge already
+   *           exists in the graph.
+   */
+  protected void insertEdge(final Vertex<T> v1, final double weight, final Vertex<T> v2) {
+    // the slots are locals, not fields, so concurrent readers never
+    // observe another call's scratch state
+    final int v1Pos = getVerticesIndexFor(v1);
+    final int v2Pos = getVerticesIndexFor(v2);
 
     if (v1Pos == -1 || v2Pos == -1) {
       throw new IllegalArgumentException("vertex not found");
     }
     // avoid adding duplicate edges
-    if (this.adjMatrix[v1Pos][v2Pos] == 0) {
-      this.adjMatrix[v1Pos][v2Pos] = 1;
+    if (!hasEdge(v1Pos, v2Pos)) {
+      putEdge(v1Pos, v2Pos, weight);
       this.numberOfEdges++;
     } else {
       throw new IllegalArgumentException("duplicate edge " + v1 + " " + v2);
@@ -95,14 +165,14 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
    */
   @Override
   public void removeEdge(final Vertex<T> v1, final Vertex<T> v2) {
-    v1Pos = getVerticesIndexFor(v1);
-    v2Pos = getVerticesIndexFor(v2);
+    final int v1Pos = getVerticesIndexFor(v1);
+    final int v2Pos = getVerticesIndexFor(v2);
 
     if (v1Pos == -1 || v2Pos == -1) {
       throw new IllegalArgumentException("vertex not found");
     }
-    if (this.adjMatrix[v1Pos][v2Pos] == 1) {
-      this.adjMatrix[v1Pos][v2Pos] = 0;
+    if (hasEdge(v1Pos, v2Pos)) {
+      deleteEdge(v1Pos, v2Pos);
       this.numberOfEdges--;
     } else {
       throw new IllegalArgumentException("edge not found");
@@ -127,17 +197,17 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
 
     this.numberOfVertices--;
     this.vertices[pos] = null;
+    this.vertexIndex.remove(v);
+    releaseSlot(pos);
 
     // now we need to go through the adjacency matrix and
-    // remove all edges incident on v. We do this by walking g
-    // alon the row and column for v in the adjacency matrix
-    for (int i = 0; i < vertices.length; i++) {
-      if (this.adjMatrix[pos][i] == 1) { // row check
-        this.adjMatrix[pos][i] = 0;
-        this.numberOfEdges--;
-      }
-      if (this.adjMatrix[i][pos] == 1) { // column check
-        this.adjMatrix[i][pos] = 0;
+    // remove all edges incident on v. The row is cleared in
+    // one step; the column needs one test per row
+    this.numberOfEdges -= degree(pos);
+    clearEdgesFrom(pos);
+    for (int i = 0; i < highWaterMark; i++) {
+      if (hasEdge(i, pos)) { // column check
+        deleteEdge(i, pos);
         this.numberOfEdges--;
       }
     }
@@ -157,9 +227,179 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
     if (posNeighborVertex != -1) {
       throw new IllegalArgumentException("duplicate vertex " + v);
     }
-    final int posNewVertex = getFreeVertexPosition();
+    placeVertex(v);
+  }
+
+  /**
+   * Add every vertex in <code>newVertices</code> to this graph, together with
+   * the edges described by <code>matrix</code>. Entry
+   * <code>matrix[i][j]</code> is the weight of the edge from
+   * <code>newVertices[i]</code> to <code>newVertices[j]</code>; a negative,
+   * infinite or NaN entry means there is no such edge. An undirected graph
+   * reads only the lower triangle, where <code>j <= i</code>. Unweighted graphs
+   * use the entries only to decide which edges exist.
+   * 
+   * The arguments are checked once, before anything is added, and the edges
+   * are then written straight into the backing arrays with the capacity grown
+   * at most once. This is much faster than calling <code>addVertex()</code>
+   * and <code>addEdge()</code> for each vertex and edge.
+   * 
+   * @param newVertices The vertices to add; must not be <code>null</code>,
+   *          contain <code>null</code> or duplicates, or contain vertices
+   *          already in this graph.
+   * @param matrix The square edge weight matrix, one row and column per
+   *          element of <code>newVertices</code>.
+   * @throws IllegalArgumentException if either argument is invalid; the graph
+   *           is then unchanged.
+   */
+  public void addAll(final Vertex<T>[] newVertices, final double[][] matrix) {
+    checkNewVertices(newVertices);
+    final int size = newVertices.length;
+    if (matrix == null || matrix.length != size) {
+      throw new IllegalArgumentException("matrix must have one row per vertex");
+    }
+    for (double[] row : matrix) {
+      if (row == null || row.length != size) {
+        throw new IllegalArgumentException("matrix must have one column per vertex");
+      }
+    }
+
+    final int[] slots = placeVertices(newVertices);
+    for (int i = 0; i < size; i++) {
+      final double[] row = matrix[i];
+      final int columns = isUndirected() ? i + 1 : size;
+      for (int j = 0; j < columns; j++) {
+        final double weight = row[j];
+        if (weight >= 0.0 && weight < NO_EDGE) {
+          putEdge(slots[i], slots[j], weight);
+          numberOfEdges++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Add every vertex in <code>newVertices</code> to this graph, together with
+   * an edge from <code>newVertices[from[k]]</code> to
+   * <code>newVertices[to[k]]</code> of weight <code>weights[k]</code> for each
+   * k. Unweighted graphs ignore the weights.
+   * 
+   * The arguments are checked before anything is added, and the edges are
+   * then written straight into the backing arrays with the capacity grown at
+   * most once.
+   * 
+   * @param newVertices The vertices to add; must not be <code>null</code>,
+   *          contain <code>null</code> or duplicates, or contain vertices
+   *          already in this graph.
+   * @param from The index in <code>newVertices</code> of the source of each
+   *          edge.
+   * @param to The index in <code>newVertices</code> of the destination of each
+   *          edge.
+   * @param weights The weight of each edge; each must be >= 0.
+   * @throws IllegalArgumentException if any argument is invalid or an edge
+   *           appears twice; the graph is then unchanged.
+   */
+  public void addAll(final Vertex<T>[] newVertices, final int[] from, final int[] to,
+      final double[] weights) {
+    checkNewVertices(newVertices);
+    if (from == null || to == null || weights == null || from.length != to.length
+        || from.length != weights.length) {
+      throw new IllegalArgumentException("edge arrays must have the same length");
+    }
+    // each edge as from * n + to, with the ends in order for an undirected
+    // graph, so that an edge and its reverse collide
+    final long n = newVertices.length;
+    final Set<Long> edges = new HashSet<Long>();
+    for (int k = 0; k < from.length; k++) {
+      if (from[k] < 0 || from[k] >= newVertices.length || to[k] < 0
+          || to[k] >= newVertices.length) {
+        throw new IllegalArgumentException("vertex not found");
+      }
+      if (!(weights[k] >= 0.0 && weights[k] < NO_EDGE)) {
+        throw new IllegalArgumentException("Edge weight " + "must be >= 0.0");
+      }
+      final boolean swap = isUndirected() && to[k] < from[k];
+      final int first = swap ? to[k] : from[k];
+      final int second = swap ? from[k] : to[k];
+      if (!edges.add(first * n + second)) {
+        throw new IllegalArgumentException("duplicate edge");
+      }
+    }
+
+    final int[] slots = placeVertices(newVertices);
+    for (int k = 0; k < from.length; k++) {
+      putEdge(slots[from[k]], slots[to[k]], weights[k]);
+      numberOfEdges++;
+    }
+  }
+
+  /**
+   * Determine if this graph stores each edge in both directions. Bulk loads
+   * use this to read each undirected edge once.
+   * 
+   * @return boolean <code>true</code> if this graph is undirected.
+   */
+  @Override
+  public boolean isUndirected() {
+    return false;
+  }
+
+  /**
+   * Check that <code>newVertices</code> could be added to this graph.
+   * 
+   * @throws IllegalArgumentException if <code>newVertices</code> is
+   *           <code>null</code>, or contains <code>null</code>, a duplicate or
+   *           a vertex already in this graph.
+   */
+  private void checkNewVertices(final Vertex<T>[] newVertices) {
+    if (newVertices == null) {
+      throw new IllegalArgumentException("null vertices");
+    }
+    final Set<Vertex<T>> seen = new HashSet<Vertex<T>>();
+    for (Vertex<T> v : newVertices) {
+      if (getVerticesIndexFor(v) != -1 || !seen.add(v)) {
+        throw new IllegalArgumentException("duplicate vertex " + v);
+      }
+    }
+  }
+
+  /**
+   * Add every vertex in <code>newVertices</code>, growing the backing arrays
+   * at most once.
+   * 
+   * @return int[] The slot given to each vertex.
+   */
+  private int[] placeVertices(final Vertex<T>[] newVertices) {
+    ensureCapacity(highWaterMark + Math.max(0, newVertices.length - freeCount));
+    final int[] slots = new int[newVertices.length];
+    for (int i = 0; i < newVertices.length; i++) {
+      slots[i] = placeVertex(newVertices[i]);
+    }
+    return slots;
+  }
+
+  /**
+   * Put <code>v</code> into a free slot, growing the backing arrays if every
+   * slot is taken.
+   * 
+   * @param v A vertex not yet in this graph (NOT VALIDATED).
+   * @return int The slot given to <code>v</code>.
+   */
+  private int placeVertex(final Vertex<T> v) {
+    final int posNewVertex;
+    if (freeCount > 0) {
+      // reuse the most recently freed slot
+      posNewVertex = freeSlots[--freeCount];
+    } else {
+      // if every slot is taken, grow geometrically so that adding
+      // n vertices only copies the matrix O(log n) times
+      ensureCapacity(highWaterMark + 1);
+      posNewVertex = highWaterMark++;
+    }
     vertices[posNewVertex] = v;
+    vertexIndex.put(v, posNewVertex);
     this.numberOfVertices++;
+    return posNewVertex;
   }
 
   /**
@@ -179,10 +419,8 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
     }
 
     final List<Vertex<T>> neighbors = new ArrayList<Vertex<T>>();
-    for (int i = 0; i < vertices.length; i++) {
-      if (this.adjMatrix[pos][i] == 1) {
-        neighbors.add(vertices[i]);
-      }
+    for (int i = nextNeighbor(pos, 0); i != -1; i = nextNeighbor(pos, i + 1)) {
+      neighbors.add(vertices[i]);
     }
 
     return neighbors;
@@ -209,22 +447,259 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
   }
 
   /**
-   * Find the first free position in vertices.
+   * Get the number of vertex slots currently allocated in this graph.
    * 
-   * @return int Index of the the first free position in vertices or -1 if there
-   *         are none.
+   * @return int The capacity of the backing arrays.
    */
-  protected int getFreeVertexPosition() {
-    for (int i = 0; i < vertices.length; i++) {
-      if (vertices[i] == null) {
-        return i;
+  @Override
+  public int getCapacity() {
+    return vertices.length;
+  }
+
+  /**
+   * Grow the backing arrays, if necessary, so this graph can hold at least
+   * <code>minCapacity</code> vertices without reallocating. The capacity is at
+   * least doubled on each growth.
+   * 
+   * @param minCapacity The desired minimum capacity.
+   */
+  public void ensureCapacity(final int minCapacity) {
+    if (minCapacity > vertices.length) {
+      resize(Math.max(minCapacity, 2 * vertices.length));
+    }
+  }
+
+  /**
+   * Shrink the backing arrays to the smallest capacity that still holds every
+   * vertex slot in use. Useful after a bulk load, when growth may have left the
+   * matrix up to twice as large as needed. Vertices keep their slots; call
+   * compact() first to also reclaim the free slots between vertices.
+   */
+  public void trimToSize() {
+    int used = highWaterMark;
+    while (used > 0 && vertices[used - 1] == null) {
+      used--;
+    }
+    if (used < highWaterMark) {
+      // forget the free slots that are about to disappear
+      int kept = 0;
+      for (int i = 0; i < freeCount; i++) {
+        if (freeSlots[i] < used) {
+          freeSlots[kept++] = freeSlots[i];
+        }
+      }
+      freeCount = kept;
+      highWaterMark = used;
+    }
+    if (used < vertices.length) {
+      resize(used);
+    }
+  }
+
+  /**
+   * Move every vertex, with its edges and weights, into slots 0 to
+   * <code>getNumberOfVertices() - 1</code>, leaving no free slots between
+   * vertices. Each hole is filled with the vertex in the highest occupied slot,
+   * so only vertices above the dense prefix change slot. Slot numbers obtained
+   * before the call are invalid afterwards.
+   */
+  public void compact() {
+    int hole = 0;
+    int last = highWaterMark - 1;
+    while (true) {
+      while (hole < last && vertices[hole] != null) {
+        hole++;
+      }
+      while (last > hole && vertices[last] == null) {
+        last--;
+      }
+      if (hole >= last) {
+        break;
+      }
+      moveSlot(last, hole);
+    }
+    highWaterMark = numberOfVertices;
+    freeCount = 0;
+  }
+
+  /**
+   * Move the vertex in slot <code>from</code>, and every edge incident on it,
+   * to the free slot <code>to</code>.
+   * 
+   * @param from An occupied slot.
+   * @param to A free slot (NOT VALIDATED).
+   */
+  protected void moveSlot(final int from, final int to) {
+    // copy the row: edges leaving the vertex
+    for (int n = nextNeighbor(from, 0); n != -1; n = nextNeighbor(from, n + 1)) {
+      putEdge(to, n == from ? to : n, edgeWeightAt(from, n));
+    }
+    // copy the column: edges entering the vertex
+    for (int i = 0; i < highWaterMark; i++) {
+      if (i != from && hasEdge(i, from)) {
+        putEdge(i, to, edgeWeightAt(i, from));
+      }
+    }
+    // and erase the old row and column
+    clearEdgesFrom(from);
+    for (int i = 0; i < highWaterMark; i++) {
+      if (hasEdge(i, from)) {
+        deleteEdge(i, from);
+      }
+    }
+
+    final Vertex<T> v = vertices[from];
+    vertices[to] = v;
+    vertices[from] = null;
+    vertexIndex.put(v, to);
+  }
+
+  /**
+   * Push <code>slot</code> onto the stack of free slots.
+   * 
+   * @param slot A slot that has just been emptied.
+   */
+  private void releaseSlot(final int slot) {
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, Math.max(4, 2 * freeCount));
+    }
+    freeSlots[freeCount++] = slot;
+  }
+
+  /**
+   * Reallocate the backing arrays with <code>newCapacity</code> slots, keeping
+   * every vertex and edge in the same slot. Subclasses that keep additional
+   * per-slot storage override this method and call it first.
+   * 
+   * @param newCapacity The new number of vertex slots; must be large enough to
+   *          hold every slot in use (NOT VALIDATED).
+   */
+  protected void resize(final int newCapacity) {
+    vertices = Arrays.copyOf(vertices, newCapacity);
+    resizeEdges(newCapacity);
+  }
+
+  /**
+   * Allocate (when first called from the constructor) or reallocate the edge
+   * storage with <code>newCapacity</code> slots, keeping every edge in place.
+   * Subclasses that store edges differently override this together with
+   * hasEdge(), putEdge(), deleteEdge(), clearEdgesFrom(), nextNeighbor() and
+   * degree().
+   * 
+   * @param newCapacity The new number of vertex slots.
+   */
+  protected void resizeEdges(final int newCapacity) {
+    if (adjMatrix == null) {
+      adjMatrix = new BitMatrix(newCapacity);
+    } else {
+      adjMatrix.resize(newCapacity);
+    }
+  }
+
+  /**
+   * Record an edge from slot <code>from</code> to slot <code>to</code>.
+   * 
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   * @param weight The weight of the edge; ignored by unweighted graphs.
+   */
+  protected void putEdge(final int from, final int to, final double weight) {
+    adjMatrix.set(from, to);
+  }
+
+  /**
+   * Erase the edge from slot <code>from</code> to slot <code>to</code>.
+   * 
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   */
+  protected void deleteEdge(final int from, final int to) {
+    adjMatrix.clear(from, to);
+  }
+
+  /**
+   * Erase every edge leaving slot <code>slot</code>.
+   * 
+   * @param slot The slot of the source vertex.
+   */
+  protected void clearEdgesFrom(final int slot) {
+    adjMatrix.clearRow(slot);
+  }
+
+  /**
+   * Get the stored weight of the edge from slot <code>from</code> to slot
+   * <code>to</code>, in the form putEdge() accepts.
+   * 
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   * @return double The weight of the edge; 1.0 in an unweighted graph.
+   */
+  protected double edgeWeightAt(final int from, final int to) {
+    return 1.0;
+  }
+
+  /**
+   * Copy a square matrix into a new square matrix with
+   * <code>newCapacity</code> rows and columns. New cells hold
+   * <code>NO_EDGE</code>.
+   * 
+   * @param matrix The matrix to copy; may be <code>null</code> for an empty
+   *          matrix.
+   * @param newCapacity The size of the new matrix.
+   * @return double[][] The resized copy.
+   */
+  protected static double[][] resizeMatrix(final double[][] matrix, final int newCapacity) {
+    final int oldCapacity = matrix == null ? 0 : matrix.length;
+    final double[][] resized = new double[newCapacity][];
+    for (int row = 0; row < newCapacity; row++) {
+      if (row < oldCapacity) {
+        resized[row] = Arrays.copyOf(matrix[row], newCapacity);
+        if (newCapacity > oldCapacity) {
+          Arrays.fill(resized[row], oldCapacity, newCapacity, NO_EDGE);
+        }
+      } else {
+        resized[row] = new double[newCapacity];
+        Arrays.fill(resized[row], NO_EDGE);
       }
     }
+    return resized;
+  }
+
+  /**
+   * Find the free position in vertices that addVertex() will use next. Runs in
+   * constant time.
+   * 
+   * @return int Index of a free position in vertices or -1 if there are none.
+   */
+  protected int getFreeVertexPosition() {
+    if (freeCount > 0) {
+      return freeSlots[freeCount - 1];
+    }
+    if (highWaterMark < vertices.length) {
+      return highWaterMark;
+    }
     return -1;
   }
 
   /**
-   * Return the position of v in vertices.
+   * Return the occupied slots, in increasing order. The i-th slot returned
+   * holds the i-th vertex returned by getVertices().
+   * 
+   * @return int[] The slots that hold a vertex.
+   */
+  protected int[] occupiedSlots() {
+    final int[] slots = new int[numberOfVertices];
+    int count = 0;
+    for (int i = 0; i < highWaterMark; i++) {
+      if (vertices[i] != null) {
+        slots[count++] = i;
+      }
+    }
+    return slots;
+  }
+
+  /**
+   * Return the position of v in vertices. Runs in expected constant time.
    * 
    * @param v Vertex Get <code>v</code>'s index in the vertices array.
    * @return int The position of v in vertices, or -1 if it isn't there.
@@ -233,12 +708,98 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
     if (v == null) {
       throw new IllegalArgumentException("null vertex");
     }
-    for (int i = 0; i < vertices.length; i++) {
-      if (vertices[i] != null && vertices[i].equals(v)) {
-        return i;
-      }
+    final Integer pos = vertexIndex.get(v);
+    if (pos == null) {
+      return -1;
     }
-    return -1;
+    return pos;
+  }
+
+  /**
+   * Get the slot that holds <code>v</code>. A slot stays the same for as long
+   * as <code>v</code> is in this graph, so algorithms can look a vertex up once
+   * and then work with slot numbers.
+   * 
+   * @param v The vertex to look up; must not be <code>null</code>.
+   * @return int The slot holding <code>v</code>, or -1 if <code>v</code> is not
+   *         in this graph.
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code>.
+   */
+  @Override
+  public int indexOf(final Vertex<T> v) {
+    return getVerticesIndexFor(v);
+  }
+
+  /**
+   * Get the vertex stored in <code>slot</code>.
+   * 
+   * @param slot A slot number in the range 0 to <code>getCapacity() - 1</code>.
+   * @return Vertex The vertex in that slot, or <code>null</code> if the slot is
+   *         free.
+   * @throws IndexOutOfBoundsException if <code>slot</code> is out of range.
+   */
+  @Override
+  public Vertex<T> vertexAt(final int slot) {
+    return vertices[slot];
+  }
+
+  /**
+   * Determine if there is an edge from the vertex in slot <code>from</code> to
+   * the vertex in slot <code>to</code>.
+   * 
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   * @return boolean <code>true</code> if the edge exists.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  @Override
+  public boolean hasEdge(final int from, final int to) {
+    return adjMatrix.get(from, to);
+  }
+
+  /**
+   * Find the first neighbor of the vertex in <code>slot</code> whose slot is
+   * <code>from</code> or greater. To visit every neighbor of a vertex:
+   * 
+   * <pre>
+   * for (int n = g.nextNeighbor(slot, 0); n != -1; n = g.nextNeighbor(slot, n + 1))
+   * </pre>
+   * 
+   * @param slot The slot of the vertex whose neighbors we want.
+   * @param from The slot to start looking at; must be >= 0.
+   * @return int The slot of the next neighbor, or -1 if there are no more.
+   * @throws IndexOutOfBoundsException if <code>slot</code> is out of range.
+   */
+  public int nextNeighbor(final int slot, final int from) {
+    return adjMatrix.nextSetBit(slot, from);
+  }
+
+  /**
+   * Pass the slot of every neighbor of the vertex in <code>slot</code> to
+   * <code>visitor</code>, in increasing slot order.
+   * 
+   * @param slot The slot of the vertex whose neighbors we want.
+   * @param visitor The callback to receive the neighbors.
+   * @throws IndexOutOfBoundsException if <code>slot</code> is out of range.
+   */
+  @Override
+  public void forEachNeighbor(final int slot, final NeighborVisitor visitor) {
+    for (int i = nextNeighbor(slot, 0); i != -1; i = nextNeighbor(slot, i + 1)) {
+      visitor.visit(i);
+    }
+  }
+
+  /**
+   * Get the number of edges leaving the vertex in <code>slot</code>. For an
+   * undirected graph this is the number of edges incident on the vertex.
+   * 
+   * @param slot The slot of the vertex.
+   * @return int The out-degree of the vertex.
+   * @throws IndexOutOfBoundsException if <code>slot</code> is out of range.
+   */
+  @Override
+  public int degree(final int slot) {
+    return adjMatrix.cardinality(slot);
   }
 
   // Methods added for TCSS 342
@@ -247,18 +808,30 @@ public class AdjMatrixDiGraph<T> implements Graph<T> {
   public String toString() {
     final StringBuilder sb = new StringBuilder();
     sb.append("Adjacency:\n");
-    for (int index = 0; index < numberOfVertices; index++) {
+    for (int index : occupiedSlots()) {
       sb.append(String.format("%15s ", vertices[index]));
-      sb.append(Arrays.toString(adjMatrix[index]) + "\n");
+      sb.append('[');
+      for (int col = 0; col < vertices.length; col++) {
+        sb.append(col == 0 ? "" : ", ").append(hasEdge(index, col) ? 1 : 0);
+      }
+      sb.append("]\n");
     }
     return sb.toString();
   }
 
   /**
-   * @return a copy of the vertex array.
+   * @return a copy of the vertex array, without the free slots, in slot order.
    */
   @Override
   public Vertex<T>[] getVertices() {
-    return Arrays.copyOf(vertices, numberOfVertices);
+    // a typed copy of the right length, then overwritten with the vertices
+    final Vertex<T>[] result = Arrays.copyOf(vertices, numberOfVertices);
+    int count = 0;
+    for (int i = 0; i < highWaterMark; i++) {
+      if (vertices[i] != null) {
+        result[count++] = vertices[i];
+      }
+    }
+    return result;
   }
 }
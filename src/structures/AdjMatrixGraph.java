@@ -7,42 +7,58 @@ package structures;
 public class AdjMatrixGraph<T> extends AdjMatrixDiGraph<T> {
 
   /**
-   * Add an edge connecting vertex <code>v1</code> to <code>v2</code>. This edge
-   * is bidirectional.
+   * Constructor. Create an empty instance of an undirected graph.
+   */
+  public AdjMatrixGraph() {
+    super();
+  }
+
+  /**
+   * Constructor. Create an empty instance of an undirected graph with room for
+   * <code>initialCapacity</code> vertices before the backing arrays must grow.
    * 
-   * @param v1 The source vertex; must not be <code>null</code> and must be a
-   *          vertex in this graph.
-   * @param v2 The destination vertex; must not be <code>null</code> and must be
-   *          a vertex in this graph.
-   * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
-   *           <code>null</code> or are not in this graph.
+   * @param initialCapacity The number of vertex slots to allocate up front.
+   * @throws IllegalArgumentException if <code>initialCapacity</code> < 0.
    */
-  @Override
-  public void addEdge(final Vertex<T> v1, final Vertex<T> v2) {
-    super.addEdge(v1, v2);
+  public AdjMatrixGraph(final int initialCapacity) {
+    super(initialCapacity);
+  }
 
-    // if we get here, the superclass method completed
-    // successfully and we can set edge from v2 to v1
-    this.adjMatrix[v2Pos][v1Pos] = 1;
+  /**
+   * Record an edge between slots <code>from</code> and <code>to</code>. The
+   * edge is bidirectional, so both directions are recorded.
+   * 
+   * @param from The slot of one end of the edge.
+   * @param to The slot of the other end of the edge.
+   * @param weight The weight of the edge; ignored by unweighted graphs.
+   */
+  @Override
+  protected void putEdge(final int from, final int to, final double weight) {
+    super.putEdge(from, to, weight);
+    super.putEdge(to, from, weight);
   }
 
   /**
-   * Remove the edge from <code>v1</code> to <code>v2</code> from this graph.
+   * Erase the edge between slots <code>from</code> and <code>to</code> in both
+   * directions.
    * 
-   * @param v1 The source vertex for the edge to remove; must not be
-   *          <code>null</code> and must be a vertex in this graph.
-   * @param v2 The destination vertex for the edge to remove; must not be
-   *          <code>null</code> and must be a vertex in this graph.
-   * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
-   *           <code>null</code> or are not in this graph.
+   * @param from The slot of one end of the edge.
+   * @param to The slot of the other end of the edge.
    */
   @Override
-  public void removeEdge(final Vertex<T> v1, final Vertex<T> v2) {
-    super.removeEdge(v1, v2);
+  protected void deleteEdge(final int from, final int to) {
+    super.deleteEdge(from, to);
+    super.deleteEdge(to, from);
+  }
 
-    // if we get here, the superclass method completed
-    // successfully and we can clear edge from v2 to v1
-    this.adjMatrix[v2Pos][v1Pos] = 0;
+  /**
+   * An undirected graph stores each edge in both directions.
+   * 
+   * @return boolean <code>true</code>.
+   */
+  @Override
+  public boolean isUndirected() {
+    return true;
   }
 
   /**
@@ -57,12 +73,15 @@ public class AdjMatrixGraph<T> extends AdjMatrixDiGraph<T> {
   @Override
   public void removeVertex(final Vertex<T> v) {
     final int numEdges = super.numberOfEdges;
+    final int pos = getVerticesIndexFor(v);
+    // each undirected edge incident on v is counted once in its degree
+    final int incidentEdges = pos == -1 ? 0 : degree(pos);
     super.removeVertex(v);
 
     // if we get here, the superclass method completed
-    // successfully and we can update the number of edges
-    // For edge (v1, v2), the superclass removeVertex() will
-    // decremented numberOfEdges twice.
-    super.numberOfEdges = numEdges - (numEdges - super.numberOfEdges) / 2;
+    // successfully and we can update the number of edges.
+    // The superclass removeVertex() counts each edge once
+    // per stored direction, so its count is not used.
+    super.numberOfEdges = numEdges - incidentEdges;
   }
 }
@@ -0,0 +1,30 @@
+
+package structures;
+
+/**
+ * An algorithm that finds the cost of a minimal path between every pair of
+ * vertices in a graph. Implementations differ in cost: Floyd-Warshall is
+ * O(V^3) whatever the number of edges, while Johnson's algorithm is
+ * O(V E log V) and so much faster on sparse graphs.
+ */
+public interface AllPairsShortestPaths<T> {
+
+  /**
+   * Find the cost of a minimal path between every pair of vertices in
+   * <code>graph</code>, and optionally the first hop of each path.
+   * 
+   * @param graph The graph to process; must not be <code>null</code>.
+   * @param next_hops A square matrix with one row and column per vertex in
+   *          <code>graph</code>, or <code>null</code> to record no routes.
+   *          If given, <code>next_hops[i][j]</code> is set to the index of
+   *          the vertex after vertex i on a minimal path from vertex i to
+   *          vertex j, or -1 if there is no such path.
+   * @return double[][] The cost of a minimal path from vertex i to vertex j at
+   *         [i][j], or <code>Double.POSITIVE_INFINITY</code> if there is none.
+   *         Row and column i belong to the i-th vertex returned by
+   *         <code>getVertices()</code>.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code> or <code>next_hops</code> has the wrong size.
+   */
+  double[][] shortestPaths(IndexedWeightedGraph<T> graph, int[][] next_hops);
+}
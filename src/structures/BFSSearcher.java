@@ -14,6 +14,17 @@ public class BFSSearcher<T> {
 
   private Map<Vertex<T>, Vertex<T>> visited;
 
+  /**
+   * The graph as an <code>IndexedGraph</code>, or <code>null</code> if it is
+   * not one.
+   */
+  private final IndexedGraph<T> indexed;
+
+  /**
+   * Queues the unvisited neighbors of one vertex; reused for every vertex.
+   */
+  private final Enqueuer enqueuer = new Enqueuer();
+
   /**
    * 
    * @param g The graph to search.
@@ -21,6 +32,7 @@ public class BFSSearcher<T> {
    */
   public BFSSearcher(final Graph<T> g) {
     graph = g;
+    indexed = g instanceof IndexedGraph ? (IndexedGraph<T>) g : null;
     visitedVertices = new short[g.getNumberOfVertices()];
   }
 
@@ -38,7 +50,7 @@ public class BFSSearcher<T> {
    *           <code>null</code> or are not in this graph.
    */
   public boolean containsPath(final Vertex<T> v1, final Vertex<T> v2) {
-    final List<Vertex<T>> verticesList = (ArrayList<Vertex<T>>) this.bfs(v1);
+    final List<Vertex<T>> verticesList = this.bfs(v1);
     return verticesList.contains(v2);
   }
 
@@ -57,7 +69,7 @@ public class BFSSearcher<T> {
    */
   public int getPathLength(final Vertex<T> v1, Vertex<T> v2) {
     int pathLength = 0;
-    final List<Vertex<T>> verticesList = (ArrayList<Vertex<T>>) this.bfs(v1);
+    final List<Vertex<T>> verticesList = this.bfs(v1);
 
     if (!verticesList.contains(v2)) {
       return 0; // no path
@@ -88,7 +100,7 @@ public class BFSSearcher<T> {
    */
   public List<Vertex<T>> getPath(final Vertex<T> v1, Vertex<T> v2) {
     final List<Vertex<T>> thepath = new ArrayList<Vertex<T>>();
-    final List<Vertex<T>> verticesList = (ArrayList<Vertex<T>>) this.bfs(v1);
+    final List<Vertex<T>> verticesList = this.bfs(v1);
 
     if (!verticesList.contains(v2)) {
       return thepath; // no path, return empty list
@@ -124,10 +136,7 @@ public class BFSSearcher<T> {
     visited.put(startVertex, new Vertex(""));
 
     // get the start vertex's neighbors and put them into the toVisitQueue
-    List<Vertex<T>> neighbors = (ArrayList<Vertex<T>>) graph.getNeighbors(startVertex);
-    for (Vertex<T> neighbor : neighbors) {
-      toVisitQueue.enqueue(new Pair<Vertex<T>>(startVertex, neighbor));
-    }
+    enqueueNeighbors(startVertex, toVisitQueue);
 
     while (!toVisitQueue.isEmpty()) {
       final Pair<Vertex<T>> vertexPair = toVisitQueue.dequeue();
@@ -139,16 +148,52 @@ public class BFSSearcher<T> {
         visited.put(dest, src); // "mark" the vertex as visited
 
         // now queue up invisited neighbors
-        neighbors = (ArrayList<Vertex<T>>) graph.getNeighbors(dest);
-        for (Vertex<T> neighbor : neighbors) {
-          // only queue up unvisited neighbors
-          if (visited.get(neighbor) == null) {
-            toVisitQueue.enqueue(new Pair<Vertex<T>>(dest, neighbor));
-          }
-        }
+        enqueueNeighbors(dest, toVisitQueue);
       }
     }
 
     return verticesList;
   }
+
+  /**
+   * Queue a pair for every unvisited neighbor of <code>src</code>. An indexed
+   * graph passes its neighbors to a visitor, so no list is built.
+   * 
+   * @param src The vertex whose neighbors to queue.
+   * @param queue The queue of pairs to visit.
+   */
+  private void enqueueNeighbors(final Vertex<T> src, final Queue<Pair<Vertex<T>>> queue) {
+    final int slot = indexed == null ? -1 : indexed.indexOf(src);
+    if (slot == -1) {
+      for (Vertex<T> neighbor : graph.getNeighbors(src)) {
+        // only queue up unvisited neighbors
+        if (visited.get(neighbor) == null) {
+          queue.enqueue(new Pair<Vertex<T>>(src, neighbor));
+        }
+      }
+      return;
+    }
+    enqueuer.src = src;
+    enqueuer.queue = queue;
+    indexed.forEachNeighbor(slot, enqueuer);
+  }
+
+  /**
+   * Queues each unvisited neighbor slot it is given, paired with src.
+   */
+  private final class Enqueuer implements NeighborVisitor {
+
+    private Vertex<T> src;
+
+    private Queue<Pair<Vertex<T>>> queue;
+
+    @Override
+    public void visit(final int slot) {
+      final Vertex<T> neighbor = indexed.vertexAt(slot);
+      // only queue up unvisited neighbors
+      if (visited.get(neighbor) == null) {
+        queue.enqueue(new Pair<Vertex<T>>(src, neighbor));
+      }
+    }
+  }
 }
@@ -0,0 +1,142 @@
+
+package structures;
+
+/**
+ * Point-to-point shortest paths by bidirectional Dijkstra. One search grows
+ * forward from the source and another grows backward from the destination
+ * over the reverse graph, each settling the side whose next distance is
+ * smaller. mu, the cost of the best path found so far, is updated whenever a
+ * vertex is reached by both searches, and the query stops as soon as
+ * <code>mu <= top_f + top_b</code>, where top_f and top_b are the smallest
+ * distances left on the two frontiers: no path through an unsettled vertex
+ * can then be shorter than mu.
+ * 
+ * The two searches settle two balls of about half the radius of the one a
+ * plain search settles, which on road-like graphs is far fewer vertices for
+ * long routes. Each search keeps its arrays between queries, as
+ * <code>DijkstraEngine</code> does. Not thread-safe; give each thread its
+ * own.
+ */
+public class BidirectionalDijkstra<T> {
+
+  /**
+   * The forward search, over the graph.
+   */
+  private final Side forward;
+
+  /**
+   * The backward search, over the reverse graph.
+   */
+  private final Side backward;
+
+  /**
+   * The cost of the best path found by the current query.
+   */
+  private double mu;
+
+  /**
+   * Constructor. Create a search over <code>graph</code>. An undirected graph
+   * is its own reverse and is searched as it is. For a directed graph both
+   * searches run over compressed sparse row copies made here, so the search
+   * does not see later changes to <code>graph</code>.
+   * 
+   * @param graph The graph to search; must not be <code>null</code>.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public BidirectionalDijkstra(final IndexedWeightedGraph<T> graph) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    if (graph.isUndirected()) {
+      this.forward = new Side(graph);
+      this.backward = new Side(graph);
+    } else {
+      final CompressedSparseRowGraph<T> csr = new CompressedSparseRowGraph<T>(graph);
+      this.forward = new Side(csr);
+      this.backward = new Side(csr.reversed());
+    }
+  }
+
+  /**
+   * Find the cost of a minimal path from <code>src</code> to
+   * <code>dest</code>. Assumes edge weights are positive.
+   * 
+   * @param src Vertex The first vertex in the path; must be in the graph.
+   * @param dest Vertex The last vertex in the path.
+   * @return double The cost of the path or -1 if none is found.
+   * @throws IllegalArgumentException if <code>src</code> or
+   *           <code>dest</code> are <code>null</code>, or <code>src</code> is
+   *           not in the graph.
+   */
+  public double minimalPath(final Vertex<T> src, final Vertex<T> dest) {
+    final int from = forward.graph.indexOf(src);
+    if (from == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    final int to = forward.graph.indexOf(dest);
+    if (to == -1) {
+      return -1;
+    }
+    final double cost = distance(from, to);
+    return cost == Double.POSITIVE_INFINITY ? -1 : cost;
+  }
+
+  /**
+   * Find the cost of a minimal path between two slots.
+   * 
+   * @param src The slot of the first vertex in the path.
+   * @param dest The slot of the last vertex in the path.
+   * @return double The cost of the path, or
+   *         <code>Double.POSITIVE_INFINITY</code> if there is none.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  public double distance(final int src, final int dest) {
+    forward.start(src);
+    backward.start(dest);
+    // set after both starts, since the first one compared against the
+    // other side's previous query
+    mu = src == dest ? 0.0 : Double.POSITIVE_INFINITY;
+    // if either frontier empties, every path has been seen by the other side
+    while (!forward.frontier.isEmpty() && !backward.frontier.isEmpty()) {
+      final double topForward = forward.frontier.topKey();
+      final double topBackward = backward.frontier.topKey();
+      if (mu <= topForward + topBackward) {
+        break;
+      }
+      final Side side = topForward <= topBackward ? forward : backward;
+      side.settleNext();
+      side.scan();
+    }
+    return mu;
+  }
+
+  /**
+   * Get the number of vertices settled by the last query, counting both
+   * searches.
+   * 
+   * @return int The number of settled vertices.
+   */
+  public int getSettledCount() {
+    return forward.getSettledCount() + backward.getSettledCount();
+  }
+
+  /**
+   * One direction of the search. Each vertex it reaches that the other
+   * direction has also reached closes a path, which may improve mu.
+   */
+  private final class Side extends DijkstraEngine<T> {
+
+    Side(final IndexedWeightedGraph<T> graph) {
+      super(graph);
+    }
+
+    @Override
+    protected void reached(final int slot, final double distance) {
+      final Side other = this == forward ? backward : forward;
+      if (slot < other.dist.length && distance + other.dist[slot] < mu) {
+        mu = distance + other.dist[slot];
+      }
+    }
+  }
+}
@@ -0,0 +1,163 @@
+
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * A square matrix of bits, packed 64 to a <code>long</code> word. Row i is
+ * stored in its own <code>long[]</code>, with column j held in bit
+ * <code>j % 64</code> of word <code>j / 64</code>, so scanning a row touches
+ * one word per 64 columns.
+ */
+public class BitMatrix {
+
+  /**
+   * log2 of the number of bits in a word.
+   */
+  private static final int ADDRESS_BITS = 6;
+
+  /**
+   * The packed rows of this matrix.
+   */
+  private long[][] rows;
+
+  /**
+   * The number of rows (and columns) in this matrix.
+   */
+  private int size;
+
+  /**
+   * Create a <code>size</code> by <code>size</code> matrix with every bit clear.
+   *
+   * @param size The number of rows and columns; must be >= 0.
+   * @throws IllegalArgumentException if <code>size</code> < 0.
+   */
+  public BitMatrix(final int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size must be >= 0");
+    }
+    this.size = size;
+    this.rows = new long[size][wordsFor(size)];
+  }
+
+  /**
+   * Get the number of rows (and columns) in this matrix.
+   *
+   * @return int The size of this matrix.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the bit at <code>row</code>, <code>col</code>.
+   *
+   * @param row The row; in the range 0 to <code>size() - 1</code>.
+   * @param col The column; in the range 0 to <code>size() - 1</code>.
+   * @return boolean <code>true</code> if the bit is set.
+   */
+  public boolean get(final int row, final int col) {
+    return (rows[row][col >>> ADDRESS_BITS] & (1L << col)) != 0;
+  }
+
+  /**
+   * Set the bit at <code>row</code>, <code>col</code>.
+   *
+   * @param row The row; in the range 0 to <code>size() - 1</code>.
+   * @param col The column; in the range 0 to <code>size() - 1</code>.
+   */
+  public void set(final int row, final int col) {
+    rows[row][col >>> ADDRESS_BITS] |= 1L << col;
+  }
+
+  /**
+   * Clear the bit at <code>row</code>, <code>col</code>.
+   *
+   * @param row The row; in the range 0 to <code>size() - 1</code>.
+   * @param col The column; in the range 0 to <code>size() - 1</code>.
+   */
+  public void clear(final int row, final int col) {
+    rows[row][col >>> ADDRESS_BITS] &= ~(1L << col);
+  }
+
+  /**
+   * Clear every bit in <code>row</code>.
+   *
+   * @param row The row; in the range 0 to <code>size() - 1</code>.
+   */
+  public void clearRow(final int row) {
+    Arrays.fill(rows[row], 0L);
+  }
+
+  /**
+   * Count the bits set in <code>row</code>.
+   *
+   * @param row The row; in the range 0 to <code>size() - 1</code>.
+   * @return int The number of set bits in the row.
+   */
+  public int cardinality(final int row) {
+    int count = 0;
+    for (long word : rows[row]) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Find the first set bit in <code>row</code> at or after column
+   * <code>from</code>. To visit every set bit in a row:
+   *
+   * <pre>
+   * for (int col = m.nextSetBit(row, 0); col != -1; col = m.nextSetBit(row, col + 1))
+   * </pre>
+   *
+   * @param row The row; in the range 0 to <code>size() - 1</code>.
+   * @param from The column to start looking at; must be >= 0.
+   * @return int The column of the next set bit, or -1 if there is none.
+   */
+  public int nextSetBit(final int row, final int from) {
+    if (from >= size) {
+      return -1;
+    }
+    final long[] words = rows[row];
+    int index = from >>> ADDRESS_BITS;
+    long word = words[index] & (-1L << from);
+    while (true) {
+      if (word != 0) {
+        return (index << ADDRESS_BITS) + Long.numberOfTrailingZeros(word);
+      }
+      index++;
+      if (index == words.length) {
+        return -1;
+      }
+      word = words[index];
+    }
+  }
+
+  /**
+   * Change the number of rows and columns to <code>newSize</code>, keeping the
+   * bits that fall inside the new bounds.
+   *
+   * @param newSize The new size; must be >= 0.
+   */
+  public void resize(final int newSize) {
+    final int words = wordsFor(newSize);
+    final long[][] resized = new long[newSize][];
+    for (int row = 0; row < newSize; row++) {
+      resized[row] = row < size ? Arrays.copyOf(rows[row], words) : new long[words];
+      if (newSize < size && words > 0 && (newSize & 63) != 0) {
+        // drop the bits for columns past the new last column
+        resized[row][words - 1] &= (1L << newSize) - 1;
+      }
+    }
+    rows = resized;
+    size = newSize;
+  }
+
+  /**
+   * Return the number of words needed to hold <code>bits</code> bits.
+   */
+  private static int wordsFor(final int bits) {
+    return (bits + 63) >>> ADDRESS_BITS;
+  }
+}
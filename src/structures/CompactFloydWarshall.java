@@ -0,0 +1,253 @@
+
+package structures;
+
+/**
+ * The blocked Floyd-Warshall loop of <code>FloydWarshall</code> for distance
+ * matrices of <code>float</code> or <code>int</code> weights. Both take half
+ * the memory of a <code>double</code> matrix and fit twice as many weights
+ * in a cache line, at the cost of precision: a
+ * <code>float</code> holds integers exactly only up to 2^24, and an
+ * <code>int</code> matrix holds only whole weights.
+ * 
+ * A missing edge is <code>Float.POSITIVE_INFINITY</code> in a
+ * <code>float</code> matrix and <code>INT_NO_EDGE</code> in an
+ * <code>int</code> matrix.
+ */
+public final class CompactFloydWarshall {
+
+  /**
+   * A missing edge in an <code>int</code> matrix. It is half of
+   * <code>Integer.MAX_VALUE</code> so that the sum of two missing edges does
+   * not overflow; every finite path must cost less than this.
+   */
+  public static final int INT_NO_EDGE = Integer.MAX_VALUE / 2;
+
+  /**
+   * Private constructor to inhibit external instantiation.
+   */
+  private CompactFloydWarshall() {
+    // do not instantiate objects of this class
+  }
+
+  /**
+   * Copy a <code>double</code> distance matrix to a <code>float</code> one.
+   * 
+   * @param dist The row-major distance matrix; must not be <code>null</code>.
+   * @return float[] The matrix with every weight rounded to the nearest
+   *         <code>float</code>.
+   * @throws IllegalArgumentException if <code>dist</code> is
+   *           <code>null</code>.
+   */
+  public static float[] toFloat(final double[] dist) {
+    if (dist == null) {
+      throw new IllegalArgumentException("null matrix");
+    }
+    final float[] compact = new float[dist.length];
+    for (int cell = 0; cell < dist.length; cell++) {
+      compact[cell] = (float) dist[cell];
+    }
+    return compact;
+  }
+
+  /**
+   * Copy a <code>double</code> distance matrix to an <code>int</code> one.
+   * 
+   * @param dist The row-major distance matrix; must not be <code>null</code>.
+   * @return int[] The matrix with every weight rounded to the nearest
+   *         <code>int</code> and every missing edge set to
+   *         <code>INT_NO_EDGE</code>.
+   * @throws IllegalArgumentException if <code>dist</code> is
+   *           <code>null</code> or holds a weight that is negative or not
+   *           less than <code>INT_NO_EDGE</code>.
+   */
+  public static int[] toInt(final double[] dist) {
+    if (dist == null) {
+      throw new IllegalArgumentException("null matrix");
+    }
+    final int[] compact = new int[dist.length];
+    for (int cell = 0; cell < dist.length; cell++) {
+      if (dist[cell] == Double.POSITIVE_INFINITY) {
+        compact[cell] = INT_NO_EDGE;
+      } else if (dist[cell] >= 0 && dist[cell] < INT_NO_EDGE) {
+        compact[cell] = (int) Math.round(dist[cell]);
+      } else {
+        throw new IllegalArgumentException("weight out of range: " + dist[cell]);
+      }
+    }
+    return compact;
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * working on <code>FloydWarshall.DEFAULT_TILE</code> square tiles.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n.
+   */
+  public static void blocked(final float[] dist, final int n) {
+    blocked(dist, n, FloydWarshall.DEFAULT_TILE);
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * working on square tiles of <code>tile</code> rows and columns.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @param tile The tile size; must be > 0.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n or
+   *           <code>tile</code> <= 0.
+   */
+  public static void blocked(final float[] dist, final int n, final int tile) {
+    checkMatrix(dist == null ? -1 : dist.length, n, tile);
+    FloydWarshall.blocked(new FloatTiles(dist, n), n, tile);
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * working on <code>FloydWarshall.DEFAULT_TILE</code> square tiles.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n.
+   */
+  public static void blocked(final int[] dist, final int n) {
+    blocked(dist, n, FloydWarshall.DEFAULT_TILE);
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * working on square tiles of <code>tile</code> rows and columns.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @param tile The tile size; must be > 0.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n or
+   *           <code>tile</code> <= 0.
+   */
+  public static void blocked(final int[] dist, final int n, final int tile) {
+    checkMatrix(dist == null ? -1 : dist.length, n, tile);
+    FloydWarshall.blocked(new IntTiles(dist, n), n, tile);
+  }
+
+  /**
+   * The tile updates for a <code>float</code> matrix; see
+   * <code>FloydWarshall</code>.
+   */
+  private static final class FloatTiles implements FloydWarshall.TileKernel {
+
+    private final float[] dist;
+
+    private final int n;
+
+    FloatTiles(final float[] dist, final int n) {
+      this.dist = dist;
+      this.n = n;
+    }
+
+    @Override
+    public void updateTile(final int iStart, final int iEnd, final int jStart, final int jEnd,
+        final int kStart, final int kEnd) {
+      for (int k = kStart; k < kEnd; k++) {
+        for (int i = iStart; i < iEnd; i++) {
+          final float viaK = dist[i * n + k];
+          if (viaK != Float.POSITIVE_INFINITY) {
+            relax(i * n, k * n, viaK, jStart, jEnd);
+          }
+        }
+      }
+    }
+
+    @Override
+    public void updateIndependentTile(final int iStart, final int iEnd, final int jStart,
+        final int jEnd, final int kStart, final int kEnd) {
+      for (int i = iStart; i < iEnd; i++) {
+        for (int k = kStart; k < kEnd; k++) {
+          final float viaK = dist[i * n + k];
+          if (viaK != Float.POSITIVE_INFINITY) {
+            relax(i * n, k * n, viaK, jStart, jEnd);
+          }
+        }
+      }
+    }
+
+    /**
+     * The inner loop for <code>float</code> weights.
+     */
+    private void relax(final int rowI, final int rowK, final float viaK, final int from,
+        final int to) {
+      for (int j = from; j < to; j++) {
+        dist[rowI + j] = Math.min(dist[rowI + j], viaK + dist[rowK + j]);
+      }
+    }
+  }
+
+  /**
+   * The tile updates for an <code>int</code> matrix; see
+   * <code>FloydWarshall</code>.
+   */
+  private static final class IntTiles implements FloydWarshall.TileKernel {
+
+    private final int[] dist;
+
+    private final int n;
+
+    IntTiles(final int[] dist, final int n) {
+      this.dist = dist;
+      this.n = n;
+    }
+
+    @Override
+    public void updateTile(final int iStart, final int iEnd, final int jStart, final int jEnd,
+        final int kStart, final int kEnd) {
+      for (int k = kStart; k < kEnd; k++) {
+        for (int i = iStart; i < iEnd; i++) {
+          final int viaK = dist[i * n + k];
+          if (viaK != INT_NO_EDGE) {
+            relax(i * n, k * n, viaK, jStart, jEnd);
+          }
+        }
+      }
+    }
+
+    @Override
+    public void updateIndependentTile(final int iStart, final int iEnd, final int jStart,
+        final int jEnd, final int kStart, final int kEnd) {
+      for (int i = iStart; i < iEnd; i++) {
+        for (int k = kStart; k < kEnd; k++) {
+          final int viaK = dist[i * n + k];
+          if (viaK != INT_NO_EDGE) {
+            relax(i * n, k * n, viaK, jStart, jEnd);
+          }
+        }
+      }
+    }
+
+    /**
+     * The inner loop for <code>int</code> weights. viaK is
+     * below <code>INT_NO_EDGE</code> and every entry is at most
+     * <code>INT_NO_EDGE</code>, so the sum cannot overflow.
+     */
+    private void relax(final int rowI, final int rowK, final int viaK, final int from,
+        final int to) {
+      for (int j = from; j < to; j++) {
+        dist[rowI + j] = Math.min(dist[rowI + j], viaK + dist[rowK + j]);
+      }
+    }
+  }
+
+  /**
+   * Check that a matrix of length cells is n by n and that tile is positive.
+   * 
+   * @throws IllegalArgumentException if either is not.
+   */
+  private static void checkMatrix(final int length, final int n, final int tile) {
+    if (n < 0 || length != (long) n * n) {
+      throw new IllegalArgumentException("matrix must be n by n");
+    }
+    if (tile <= 0) {
+      throw new IllegalArgumentException("tile must be > 0");
+    }
+  }
+}
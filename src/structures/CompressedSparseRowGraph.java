@@ -0,0 +1,452 @@
+
+package structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, weighted graph stored in compressed sparse row (CSR) form. The
+ * outgoing edges of vertex i are stored in positions
+ * <code>offsets[i]</code> to <code>offsets[i + 1] - 1</code> of the parallel
+ * <code>targets</code> and <code>weights</code> arrays, so the graph uses
+ * O(V + E) memory and enumerating the neighbors of a vertex costs O(degree).
+ *
+ * Slot i of this graph is row i of the CSR arrays; there are no free slots.
+ * The graph is built once from any other <code>WeightedGraph</code>; every
+ * method that would modify it throws
+ * <code>UnsupportedOperationException</code>.
+ */
+public class CompressedSparseRowGraph<T> implements IndexedWeightedGraph<T> {
+
+  /**
+   * The vertices of this graph; the index of a vertex in this array is its row
+   * in the CSR arrays.
+   */
+  private final Vertex<T>[] vertices;
+
+  /**
+   * Maps each vertex to its index in vertices.
+   */
+  private final Map<Vertex<T>, Integer> indices;
+
+  /**
+   * offsets[i] is the position in targets and weights of the first edge
+   * leaving vertex i; offsets[vertices.length] is the number of stored edges.
+   */
+  private final int[] offsets;
+
+  /**
+   * targets[e] is the index of the vertex that edge e points to.
+   */
+  private final int[] targets;
+
+  /**
+   * weights[e] is the weight of edge e.
+   */
+  private final double[] weights;
+
+  /**
+   * The number of edges reported by the graph this graph was built from. For
+   * an undirected source each edge is stored in both directions.
+   */
+  private final int numberOfEdges;
+
+  /**
+   * <code>true</code> if every edge is stored in both directions.
+   */
+  private final boolean undirected;
+
+  /**
+   * Constructor. Create a compressed copy of <code>graph</code>.
+   *
+   * @param graph The graph to copy; must not be <code>null</code>.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public CompressedSparseRowGraph(final WeightedGraph<T> graph) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    this.vertices = graph.getVertices();
+    this.indices = new HashMap<Vertex<T>, Integer>();
+    for (int i = 0; i < vertices.length; i++) {
+      indices.put(vertices[i], i);
+    }
+
+    this.offsets = new int[vertices.length + 1];
+    int[] edgeTargets = new int[vertices.length];
+    double[] edgeWeights = new double[vertices.length];
+    int edges = 0;
+    for (int i = 0; i < vertices.length; i++) {
+      offsets[i] = edges;
+      for (Vertex<T> neighbor : graph.getNeighbors(vertices[i])) {
+        if (edges == edgeTargets.length) {
+          edgeTargets = Arrays.copyOf(edgeTargets, Math.max(1, 2 * edges));
+          edgeWeights = Arrays.copyOf(edgeWeights, edgeTargets.length);
+        }
+        edgeTargets[edges] = indices.get(neighbor);
+        edgeWeights[edges] = graph.getEdgeWeight(vertices[i], neighbor);
+        edges++;
+      }
+    }
+    offsets[vertices.length] = edges;
+
+    this.targets = Arrays.copyOf(edgeTargets, edges);
+    this.weights = Arrays.copyOf(edgeWeights, edges);
+    this.numberOfEdges = graph.getNumberOfEdges();
+    this.undirected = graph.isUndirected();
+  }
+
+  /**
+   * Constructor. Create a directed graph from CSR arrays, which are not
+   * copied. The number of edges is the number stored.
+   */
+  CompressedSparseRowGraph(final Vertex<T>[] vertices, final int[] offsets,
+      final int[] targets, final double[] weights) {
+    this.vertices = vertices;
+    this.indices = new HashMap<Vertex<T>, Integer>();
+    for (int i = 0; i < vertices.length; i++) {
+      indices.put(vertices[i], i);
+    }
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.numberOfEdges = targets.length;
+    this.undirected = false;
+  }
+
+  /**
+   * Constructor. Create a graph with the vertices of <code>graph</code> and
+   * the given edges, which are stored both ways if <code>undirected</code>.
+   */
+  CompressedSparseRowGraph(final CompressedSparseRowGraph<T> graph,
+      final int[] offsets, final int[] targets, final double[] weights,
+      final boolean undirected) {
+    this.vertices = graph.vertices;
+    this.indices = graph.indices;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.numberOfEdges = graph.numberOfEdges;
+    this.undirected = undirected;
+  }
+
+  /**
+   * Create a copy of this graph with each edge from u to v reweighted to
+   * <code>w(u, v) + potentials[u] - potentials[v]</code>, as in Johnson's
+   * algorithm. Only the weights are copied.
+   *
+   * @param potentials One value per slot.
+   * @return CompressedSparseRowGraph The reweighted graph.
+   */
+  CompressedSparseRowGraph<T> reweighted(final double[] potentials) {
+    final double[] newWeights = new double[weights.length];
+    for (int from = 0; from < vertices.length; from++) {
+      for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+        newWeights[e] = weights[e] + potentials[from] - potentials[targets[e]];
+      }
+    }
+    // the potentials do not cancel in both directions, so the result is
+    // directed
+    return new CompressedSparseRowGraph<T>(this, offsets, targets, newWeights, false);
+  }
+
+  /**
+   * Create the reverse of this graph, in which every edge from u to v becomes
+   * an edge from v to u with the same weight. Slots are unchanged. Runs in
+   * O(V + E) time.
+   *
+   * @return CompressedSparseRowGraph The reversed graph.
+   */
+  CompressedSparseRowGraph<T> reversed() {
+    // count the edges entering each vertex, then place each edge after the
+    // ones already placed for its target
+    final int[] newOffsets = new int[vertices.length + 1];
+    for (int e = 0; e < targets.length; e++) {
+      newOffsets[targets[e] + 1]++;
+    }
+    for (int i = 0; i < vertices.length; i++) {
+      newOffsets[i + 1] += newOffsets[i];
+    }
+    final int[] next = Arrays.copyOf(newOffsets, vertices.length);
+    final int[] newTargets = new int[targets.length];
+    final double[] newWeights = new double[targets.length];
+    for (int from = 0; from < vertices.length; from++) {
+      for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+        final int pos = next[targets[e]]++;
+        newTargets[pos] = from;
+        newWeights[pos] = weights[e];
+      }
+    }
+    return new CompressedSparseRowGraph<T>(this, newOffsets, newTargets, newWeights,
+        undirected);
+  }
+
+  /**
+   * Not supported; this graph is immutable.
+   *
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void addVertex(final Vertex<T> v) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; this graph is immutable.
+   *
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void addEdge(final Vertex<T> v1, final Vertex<T> v2) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; this graph is immutable.
+   *
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void addEdge(final Vertex<T> v1, final double weight, final Vertex<T> v2) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; this graph is immutable.
+   *
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void removeVertex(final Vertex<T> v) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; this graph is immutable.
+   *
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void removeEdge(final Vertex<T> v1, final Vertex<T> v2) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; this graph is immutable.
+   *
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setEdgeWeight(final Vertex<T> v1, final double newWeight, final Vertex<T> v2) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Get the neighbors of Vertex <code>v</code> in this graph. Runs in
+   * O(degree) time.
+   *
+   * @param v Vertex The vertex whose neighbors we want; must not be
+   *          <code>null</code> and must be a vertex in this graph.
+   * @return List The vertices incident on <code>v</code>.
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code> or
+   *           is not in this graph.
+   */
+  @Override
+  public List<Vertex<T>> getNeighbors(final Vertex<T> v) {
+    final int pos = getVerticesIndexFor(v);
+    final List<Vertex<T>> neighbors = new ArrayList<Vertex<T>>(offsets[pos + 1] - offsets[pos]);
+    for (int e = offsets[pos]; e < offsets[pos + 1]; e++) {
+      neighbors.add(vertices[targets[e]]);
+    }
+    return neighbors;
+  }
+
+  /**
+   * Get the weight of the edge from <code>v1</code> to <code>v2</code>. Runs in
+   * O(degree of <code>v1</code>) time.
+   *
+   * @param v1 The source vertex; must not be <code>null</code> and must be a
+   *          vertex in this graph.
+   * @param v2 The destination vertex; must not be <code>null</code> and must be
+   *          a vertex in this graph.
+   * @return double The weight of the edge from <code>v1</code> to
+   *         <code>v2</code>, or 0.0 if there is no such edge.
+   * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
+   *           <code>null</code> or are not in this graph.
+   */
+  @Override
+  public double getEdgeWeight(final Vertex<T> v1, final Vertex<T> v2) {
+    return getEdgeWeight(getVerticesIndexFor(v1), getVerticesIndexFor(v2));
+  }
+
+  /**
+   * Get the weight of the edge from the vertex in slot <code>from</code> to the
+   * vertex in slot <code>to</code>. Runs in O(degree of <code>from</code>)
+   * time.
+   *
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   * @return double The weight of the edge, or 0.0 if there is no such edge.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  @Override
+  public double getEdgeWeight(final int from, final int to) {
+    final int e = findEdge(from, to);
+    return e == -1 ? 0.0 : weights[e];
+  }
+
+  @Override
+  public int getCapacity() {
+    return vertices.length;
+  }
+
+  @Override
+  public int indexOf(final Vertex<T> v) {
+    if (v == null) {
+      throw new IllegalArgumentException("null vertex");
+    }
+    final Integer pos = indices.get(v);
+    return pos == null ? -1 : pos;
+  }
+
+  @Override
+  public Vertex<T> vertexAt(final int slot) {
+    return vertices[slot];
+  }
+
+  @Override
+  public boolean hasEdge(final int from, final int to) {
+    return findEdge(from, to) != -1;
+  }
+
+  @Override
+  public int degree(final int slot) {
+    return offsets[slot + 1] - offsets[slot];
+  }
+
+  @Override
+  public void forEachNeighbor(final int slot, final NeighborVisitor visitor) {
+    for (int e = offsets[slot]; e < offsets[slot + 1]; e++) {
+      visitor.visit(targets[e]);
+    }
+  }
+
+  @Override
+  public void forEachNeighbor(final int slot, final WeightedNeighborVisitor visitor) {
+    for (int e = offsets[slot]; e < offsets[slot + 1]; e++) {
+      visitor.visit(targets[e], weights[e]);
+    }
+  }
+
+  /**
+   * Get the number of vertices in this graph.
+   *
+   * @return int The number of vertices in this graph.
+   */
+  @Override
+  public int getNumberOfVertices() {
+    return vertices.length;
+  }
+
+  /**
+   * Get the number of edges in this graph, as reported by the graph it was
+   * built from.
+   *
+   * @return int The number of edges in this graph.
+   */
+  @Override
+  public int getNumberOfEdges() {
+    return numberOfEdges;
+  }
+
+  @Override
+  public boolean isUndirected() {
+    return undirected;
+  }
+
+  /**
+   * @return a copy of the vertex array.
+   */
+  @Override
+  public Vertex<T>[] getVertices() {
+    return Arrays.copyOf(vertices, vertices.length);
+  }
+
+  /**
+   * Find a minimal cost path from <code>src</code> to <code>dest</code> in this
+   * graph. Assumes edge weights are positive.
+   *
+   * @param src Vertex The first vertex in the path.
+   * @param dest Vertex The last vertex in the path.
+   * @return double The cost of the path or -1 if none is found.
+   */
+  public double minimalPath(final Vertex<T> src, final Vertex<T> dest) {
+    return WeightedAdjMatrixGraph.minimalPath(this, src, dest);
+  }
+
+  /**
+   * Find the minimal paths from <code>src</code> to every vertex in this
+   * graph with a single run of Dijkstra's algorithm.
+   *
+   * @param src Vertex The vertex the paths start at.
+   * @return ShortestPathTree The costs of and routes to every vertex.
+   * @throws IllegalArgumentException if <code>src</code> is <code>null</code>
+   *           or is not in this graph.
+   */
+  public ShortestPathTree<T> shortestPathTree(final Vertex<T> src) {
+    return new DijkstraEngine<T>(this).shortestPathTree(src);
+  }
+
+  /**
+   * Return the position of v in vertices.
+   *
+   * @param v Vertex Get <code>v</code>'s index in the vertices array.
+   * @return int The position of v in vertices.
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code> or
+   *           is not in this graph.
+   */
+  private int getVerticesIndexFor(final Vertex<T> v) {
+    final int pos = indexOf(v);
+    if (pos == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    return pos;
+  }
+
+  /**
+   * Return the position in targets and weights of the edge from slot
+   * <code>from</code> to slot <code>to</code>.
+   *
+   * @return int The position of the edge, or -1 if there is no such edge.
+   */
+  private int findEdge(final int from, final int to) {
+    for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+      if (targets[e] == to) {
+        return e;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("Adjacency:\n");
+    for (int index = 0; index < vertices.length; index++) {
+      sb.append(String.format("%15s ", vertices[index]));
+      sb.append('[');
+      for (int e = offsets[index]; e < offsets[index + 1]; e++) {
+        if (e > offsets[index]) {
+          sb.append(", ");
+        }
+        sb.append(vertices[targets[e]]).append('=').append(weights[e]);
+      }
+      sb.append("]\n");
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,467 @@
+
+package structures;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe view of an <code>IndexedWeightedGraph</code>. Any number of
+ * threads may query the graph while others update it.
+ * 
+ * The slots of the wrapped graph are split into stripes, each guarded by its
+ * own read-write lock; slot i belongs to stripe
+ * <code>i & (stripes - 1)</code>. Queries about a vertex take the read lock of
+ * that vertex's stripe only, so readers on different stripes never touch the
+ * same lock and readers on the same stripe share it.
+ * <code>setEdgeWeight()</code> takes the write locks of the stripes of both
+ * endpoints, so a weight update blocks only the readers of those two stripes.
+ * Adding or removing vertices and edges changes the shape of the whole graph
+ * and takes every write lock.
+ * 
+ * Vertices are mapped to their slots by a <code>ConcurrentHashMap</code> kept
+ * by this class, so a reader can find its stripe without a lock; the mapping
+ * is checked again once the lock is held and the lookup retried if a
+ * structural change moved the vertex in between.
+ * 
+ * The wrapped graph must not be used directly once it has been wrapped.
+ * Visitors passed to <code>forEachNeighbor()</code> run while a read lock is
+ * held and must not modify this graph.
+ */
+public class ConcurrentWeightedGraph<T> implements IndexedWeightedGraph<T> {
+
+  /**
+   * The default number of lock stripes; must be a power of two.
+   */
+  protected static final int DEFAULT_STRIPES = 16;
+
+  /**
+   * The graph that holds the vertices and edges.
+   */
+  private final IndexedWeightedGraph<T> graph;
+
+  /**
+   * The lock stripes; stripes.length is a power of two.
+   */
+  private final ReentrantReadWriteLock[] stripes;
+
+  /**
+   * Maps each vertex in graph to its slot. Changed only while every write lock
+   * is held.
+   */
+  private final ConcurrentHashMap<Vertex<T>, Integer> slots;
+
+  /**
+   * Constructor. Create a thread-safe view of <code>graph</code> with the
+   * default number of lock stripes.
+   * 
+   * @param graph The graph to wrap; must not be <code>null</code>.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public ConcurrentWeightedGraph(final IndexedWeightedGraph<T> graph) {
+    this(graph, DEFAULT_STRIPES);
+  }
+
+  /**
+   * Constructor. Create a thread-safe view of <code>graph</code>.
+   * 
+   * @param graph The graph to wrap; must not be <code>null</code>.
+   * @param stripes The number of lock stripes; must be > 0. It is rounded up to
+   *          a power of two.
+   * @throws IllegalArgumentException if <code>graph</code> is <code>null</code>
+   *           or <code>stripes</code> <= 0.
+   */
+  public ConcurrentWeightedGraph(final IndexedWeightedGraph<T> graph, final int stripes) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    if (stripes <= 0 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("stripes must be in the range 1 to 65536");
+    }
+    this.graph = graph;
+    int count = 1;
+    while (count < stripes) {
+      count <<= 1;
+    }
+    this.stripes = new ReentrantReadWriteLock[count];
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new ReentrantReadWriteLock();
+    }
+    this.slots = new ConcurrentHashMap<Vertex<T>, Integer>();
+    final int capacity = graph.getCapacity();
+    for (int slot = 0; slot < capacity; slot++) {
+      final Vertex<T> v = graph.vertexAt(slot);
+      if (v != null) {
+        slots.put(v, slot);
+      }
+    }
+  }
+
+  /**
+   * Add a vertex to this graph. Blocks every reader while it runs.
+   * 
+   * @param v The vertex to add; must not be <code>null</code>.
+   * @throws IllegalArgumentException as the wrapped graph does.
+   */
+  @Override
+  public void addVertex(final Vertex<T> v) {
+    lockAll();
+    try {
+      graph.addVertex(v);
+      // growing the graph may have moved nothing but the new vertex
+      slots.put(v, graph.indexOf(v));
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Remove a vertex and its edges from this graph. Blocks every reader while
+   * it runs.
+   * 
+   * @param v The vertex to remove; must not be <code>null</code>.
+   * @throws IllegalArgumentException as the wrapped graph does.
+   */
+  @Override
+  public void removeVertex(final Vertex<T> v) {
+    lockAll();
+    try {
+      graph.removeVertex(v);
+      slots.remove(v);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Add an edge of the wrapped graph's default weight. Blocks every reader
+   * while it runs.
+   * 
+   * @throws IllegalArgumentException as the wrapped graph does.
+   */
+  @Override
+  public void addEdge(final Vertex<T> v1, final Vertex<T> v2) {
+    lockAll();
+    try {
+      graph.addEdge(v1, v2);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Add a weighted edge. Blocks every reader while it runs.
+   * 
+   * @throws IllegalArgumentException as the wrapped graph does.
+   */
+  @Override
+  public void addEdge(final Vertex<T> v1, final double weight, final Vertex<T> v2) {
+    lockAll();
+    try {
+      graph.addEdge(v1, weight, v2);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Remove an edge. Blocks every reader while it runs.
+   * 
+   * @throws IllegalArgumentException as the wrapped graph does.
+   */
+  @Override
+  public void removeEdge(final Vertex<T> v1, final Vertex<T> v2) {
+    lockAll();
+    try {
+      graph.removeEdge(v1, v2);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Reset the weight of an existing edge. Blocks only the readers of the
+   * stripes that hold <code>v1</code> and <code>v2</code>.
+   * 
+   * @throws IllegalArgumentException as the wrapped graph does.
+   */
+  @Override
+  public void setEdgeWeight(final Vertex<T> v1, final double newWeight, final Vertex<T> v2) {
+    while (true) {
+      final int slot1 = slotOf(v1);
+      final int slot2 = slotOf(v2);
+      // take the two locks in stripe order so that writers cannot deadlock
+      final int first = Math.min(stripe(slot1), stripe(slot2));
+      final int second = Math.max(stripe(slot1), stripe(slot2));
+      stripes[first].writeLock().lock();
+      if (second != first) {
+        stripes[second].writeLock().lock();
+      }
+      try {
+        if (slotOf(v1) == slot1 && slotOf(v2) == slot2) {
+          graph.setEdgeWeight(v1, newWeight, v2);
+          return;
+        }
+      } finally {
+        if (second != first) {
+          stripes[second].writeLock().unlock();
+        }
+        stripes[first].writeLock().unlock();
+      }
+    }
+  }
+
+  @Override
+  public List<Vertex<T>> getNeighbors(final Vertex<T> v) {
+    final Lock lock = readLockFor(v);
+    try {
+      return graph.getNeighbors(v);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public double getEdgeWeight(final Vertex<T> v1, final Vertex<T> v2) {
+    final Lock lock = readLockFor(v1);
+    try {
+      return graph.getEdgeWeight(v1, v2);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public double getEdgeWeight(final int from, final int to) {
+    final Lock lock = stripes[stripe(from)].readLock();
+    lock.lock();
+    try {
+      return graph.getEdgeWeight(from, to);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getCapacity() {
+    final Lock lock = anyReadLock();
+    try {
+      return graph.getCapacity();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the slot that holds <code>v</code>. Does not lock; the slot stays valid
+   * until the next vertex is removed.
+   */
+  @Override
+  public int indexOf(final Vertex<T> v) {
+    if (v == null) {
+      throw new IllegalArgumentException("null vertex");
+    }
+    final Integer slot = slots.get(v);
+    return slot == null ? -1 : slot;
+  }
+
+  @Override
+  public Vertex<T> vertexAt(final int slot) {
+    final Lock lock = stripes[stripe(slot)].readLock();
+    lock.lock();
+    try {
+      return graph.vertexAt(slot);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean hasEdge(final int from, final int to) {
+    final Lock lock = stripes[stripe(from)].readLock();
+    lock.lock();
+    try {
+      return graph.hasEdge(from, to);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int degree(final int slot) {
+    final Lock lock = stripes[stripe(slot)].readLock();
+    lock.lock();
+    try {
+      return graph.degree(slot);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void forEachNeighbor(final int slot, final NeighborVisitor visitor) {
+    final Lock lock = stripes[stripe(slot)].readLock();
+    lock.lock();
+    try {
+      graph.forEachNeighbor(slot, visitor);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void forEachNeighbor(final int slot, final WeightedNeighborVisitor visitor) {
+    final Lock lock = stripes[stripe(slot)].readLock();
+    lock.lock();
+    try {
+      graph.forEachNeighbor(slot, visitor);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getNumberOfVertices() {
+    final Lock lock = anyReadLock();
+    try {
+      return graph.getNumberOfVertices();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getNumberOfEdges() {
+    final Lock lock = anyReadLock();
+    try {
+      return graph.getNumberOfEdges();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The wrapped graph's directedness never changes, so no lock is taken.
+   */
+  @Override
+  public boolean isUndirected() {
+    return graph.isUndirected();
+  }
+
+  @Override
+  public Vertex<T>[] getVertices() {
+    final Lock lock = anyReadLock();
+    try {
+      return graph.getVertices();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Find a minimal cost path from <code>src</code> to <code>dest</code>. Each
+   * edge is read under its own lock, so the cost may mix weights from before
+   * and after a concurrent <code>setEdgeWeight()</code>.
+   * 
+   * @param src Vertex The first vertex in the path.
+   * @param dest Vertex The last vertex in the path.
+   * @return double The cost of the path or -1 if none is found.
+   */
+  public double minimalPath(final Vertex<T> src, final Vertex<T> dest) {
+    return WeightedAdjMatrixGraph.minimalPath(this, src, dest);
+  }
+
+  /**
+   * Find the minimal paths from <code>src</code> to every vertex in this
+   * graph with a single run of Dijkstra's algorithm.
+   * 
+   * @param src Vertex The vertex the paths start at.
+   * @return ShortestPathTree The costs of and routes to every vertex.
+   * @throws IllegalArgumentException if <code>src</code> is <code>null</code>
+   *           or is not in this graph.
+   */
+  public ShortestPathTree<T> shortestPathTree(final Vertex<T> src) {
+    return new DijkstraEngine<T>(this).shortestPathTree(src);
+  }
+
+  @Override
+  public String toString() {
+    final Lock lock = anyReadLock();
+    try {
+      return graph.toString();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Return the stripe that guards <code>slot</code>.
+   */
+  private int stripe(final int slot) {
+    return slot & (stripes.length - 1);
+  }
+
+  /**
+   * Return the slot of <code>v</code>, as recorded in slots.
+   * 
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code> or
+   *           is not in this graph.
+   */
+  private int slotOf(final Vertex<T> v) {
+    final int slot = indexOf(v);
+    if (slot == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    return slot;
+  }
+
+  /**
+   * Take and return the read lock of the stripe that holds <code>v</code>.
+   * 
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code> or
+   *           is not in this graph.
+   */
+  private Lock readLockFor(final Vertex<T> v) {
+    while (true) {
+      final int slot = slotOf(v);
+      final Lock lock = stripes[stripe(slot)].readLock();
+      lock.lock();
+      // no structural change can start now; make sure none finished between
+      // the lookup and the lock
+      if (indexOf(v) == slot) {
+        return lock;
+      }
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Take and return a read lock that keeps structural changes out. Threads are
+   * spread over the stripes so that they do not all share one lock.
+   */
+  private Lock anyReadLock() {
+    final Lock lock = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)].readLock();
+    lock.lock();
+    return lock;
+  }
+
+  /**
+   * Take every write lock, in stripe order.
+   */
+  private void lockAll() {
+    for (ReentrantReadWriteLock stripe : stripes) {
+      stripe.writeLock().lock();
+    }
+  }
+
+  /**
+   * Release every write lock.
+   */
+  private void unlockAll() {
+    for (int i = stripes.length - 1; i >= 0; i--) {
+      stripes[i].writeLock().unlock();
+    }
+  }
+}
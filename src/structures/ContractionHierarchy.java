@@ -0,0 +1,674 @@
+
+package structures;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A contraction hierarchy: a graph preprocessed so that point-to-point
+ * queries settle only a few hundred vertices however far apart the ends are.
+ * 
+ * <code>build()</code> contracts the vertices one at a time, least important
+ * first. Contracting v removes it from the remaining graph; for each pair of
+ * remaining neighbors u and w whose only shortest path runs u, v, w, a
+ * shortcut edge from u to w with the cost of that path takes its place. A
+ * witness search, a Dijkstra from u that avoids v and gives up at the cost of
+ * the path through v, decides whether another path is as short, in which case
+ * no shortcut is needed. Importance is the edge difference (shortcuts added
+ * less edges removed) plus the number of neighbors already contracted, which
+ * spreads contraction evenly over the graph; it is updated lazily, when a
+ * vertex reaches the front of the queue.
+ * 
+ * Every shortest path then climbs to its most important vertex and descends
+ * again, so a query runs Dijkstra upward from the source over edges to more
+ * important vertices and upward from the destination over reversed edges,
+ * and takes the best vertex reached by both. Each side stops once its
+ * smallest distance is no better than the best path found.
+ * 
+ * The hierarchy is immutable and may be saved and loaded. Queries reuse their
+ * arrays, so a hierarchy is not thread-safe; load one per thread.
+ */
+public class ContractionHierarchy<T> {
+
+  /**
+   * Identifies a saved hierarchy: "CHG" and format version 1.
+   */
+  private static final int MAGIC = 0x43484731;
+
+  /**
+   * The number of vertices a witness search may settle before it gives up
+   * and a shortcut is added anyway. Extra shortcuts cost space, not
+   * correctness.
+   */
+  private static final int WITNESS_SETTLE_LIMIT = 500;
+
+  /**
+   * The vertices, in slot order.
+   */
+  private final Vertex<T>[] vertices;
+
+  /**
+   * The upward graph: for slot v, the edges from v to more important slots,
+   * original and shortcut, in CSR form.
+   */
+  private final int[] upOffsets;
+
+  private final int[] upTargets;
+
+  private final double[] upWeights;
+
+  /**
+   * The reversed downward graph: for slot v, the edges into v from more
+   * important slots, stored as edges from v, in CSR form.
+   */
+  private final int[] downOffsets;
+
+  private final int[] downTargets;
+
+  private final double[] downWeights;
+
+  /**
+   * The number of shortcut edges added by contraction.
+   */
+  private final int shortcuts;
+
+  /**
+   * The forward search, over the upward graph.
+   */
+  private final Side forward;
+
+  /**
+   * The backward search, over the reversed downward graph.
+   */
+  private final Side backward;
+
+  /**
+   * The cost of the best path found by the current query.
+   */
+  private double mu;
+
+  /**
+   * Constructor. Create a hierarchy from its arrays, which are not copied.
+   */
+  private ContractionHierarchy(final Vertex<T>[] vertices, final int[] upOffsets,
+      final int[] upTargets, final double[] upWeights, final int[] downOffsets,
+      final int[] downTargets, final double[] downWeights, final int shortcuts) {
+    this.vertices = vertices;
+    this.upOffsets = upOffsets;
+    this.upTargets = upTargets;
+    this.upWeights = upWeights;
+    this.downOffsets = downOffsets;
+    this.downTargets = downTargets;
+    this.downWeights = downWeights;
+    this.shortcuts = shortcuts;
+    final CompressedSparseRowGraph<T> up =
+        new CompressedSparseRowGraph<T>(vertices, upOffsets, upTargets, upWeights);
+    this.forward = new Side(up);
+    this.backward = new Side(new CompressedSparseRowGraph<T>(up, downOffsets, downTargets,
+        downWeights, false));
+  }
+
+  /**
+   * Build the contraction hierarchy of <code>graph</code>. The graph may be
+   * directed or undirected; its edge weights must not be negative. The
+   * hierarchy is a copy and does not see later changes to <code>graph</code>.
+   * 
+   * @param graph The graph to preprocess; must not be <code>null</code>.
+   * @return ContractionHierarchy The hierarchy.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code> or has a negative edge weight.
+   */
+  public static <T> ContractionHierarchy<T> build(final WeightedGraph<T> graph) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    return new Builder<T>(graph).build();
+  }
+
+  /**
+   * Load a hierarchy saved by <code>save()</code>. Vertex labels are restored
+   * as strings.
+   * 
+   * @param file The file to read.
+   * @return ContractionHierarchy The hierarchy.
+   * @throws IOException if the file cannot be read or is not a saved
+   *           hierarchy.
+   */
+  public static ContractionHierarchy<String> load(final File file) throws IOException {
+    final InputStream in = new FileInputStream(file);
+    try {
+      return load(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Load a hierarchy saved by <code>save()</code>. Vertex labels are restored
+   * as strings. The stream is not closed.
+   * 
+   * @param stream The stream to read.
+   * @return ContractionHierarchy The hierarchy.
+   * @throws IOException if the stream cannot be read or does not hold a saved
+   *           hierarchy.
+   */
+  public static ContractionHierarchy<String> load(final InputStream stream)
+      throws IOException {
+    final DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("not a saved contraction hierarchy");
+    }
+    final int n = in.readInt();
+    final Vertex<String>[] vertices = newVertices(n);
+    for (int i = 0; i < n; i++) {
+      vertices[i] = new Vertex<String>(in.readUTF());
+      if (in.readBoolean()) {
+        final double latitude = in.readDouble();
+        vertices[i].setLocation(latitude, in.readDouble());
+      }
+    }
+    final int shortcuts = in.readInt();
+    final int[] upOffsets = readInts(in, n + 1);
+    final int[] upTargets = readInts(in, upOffsets[n]);
+    final double[] upWeights = readDoubles(in, upOffsets[n]);
+    final int[] downOffsets = readInts(in, n + 1);
+    final int[] downTargets = readInts(in, downOffsets[n]);
+    final double[] downWeights = readDoubles(in, downOffsets[n]);
+    return new ContractionHierarchy<String>(vertices, upOffsets, upTargets, upWeights,
+        downOffsets, downTargets, downWeights, shortcuts);
+  }
+
+  /**
+   * Save this hierarchy to <code>file</code>, replacing it if it exists.
+   * Vertex labels are saved as their <code>toString()</code>.
+   * 
+   * @param file The file to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public void save(final File file) throws IOException {
+    final OutputStream out = new FileOutputStream(file);
+    try {
+      save(out);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Save this hierarchy to <code>stream</code>. Vertex labels are saved as
+   * their <code>toString()</code>. The stream is flushed but not closed.
+   * 
+   * @param stream The stream to write.
+   * @throws IOException if the stream cannot be written.
+   */
+  public void save(final OutputStream stream) throws IOException {
+    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+    out.writeInt(MAGIC);
+    out.writeInt(vertices.length);
+    for (Vertex<T> v : vertices) {
+      out.writeUTF(v.toString());
+      out.writeBoolean(v.hasLocation());
+      if (v.hasLocation()) {
+        out.writeDouble(v.getLatitude());
+        out.writeDouble(v.getLongitude());
+      }
+    }
+    out.writeInt(shortcuts);
+    writeInts(out, upOffsets);
+    writeInts(out, upTargets);
+    writeDoubles(out, upWeights);
+    writeInts(out, downOffsets);
+    writeInts(out, downTargets);
+    writeDoubles(out, downWeights);
+    out.flush();
+  }
+
+  /**
+   * Find the cost of a minimal path from <code>src</code> to
+   * <code>dest</code>.
+   * 
+   * @param src Vertex The first vertex in the path; must be in the graph.
+   * @param dest Vertex The last vertex in the path.
+   * @return double The cost of the path or -1 if none is found.
+   * @throws IllegalArgumentException if <code>src</code> or
+   *           <code>dest</code> are <code>null</code>, or <code>src</code> is
+   *           not in the graph.
+   */
+  public double minimalPath(final Vertex<T> src, final Vertex<T> dest) {
+    final int from = forward.graph.indexOf(src);
+    if (from == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    final int to = forward.graph.indexOf(dest);
+    if (to == -1) {
+      return -1;
+    }
+    final double cost = distance(from, to);
+    return cost == Double.POSITIVE_INFINITY ? -1 : cost;
+  }
+
+  /**
+   * Find the cost of a minimal path between two slots.
+   * 
+   * @param src The slot of the first vertex in the path.
+   * @param dest The slot of the last vertex in the path.
+   * @return double The cost of the path, or
+   *         <code>Double.POSITIVE_INFINITY</code> if there is none.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  public double distance(final int src, final int dest) {
+    forward.start(src);
+    backward.start(dest);
+    // set after both starts, since the first one compared against the
+    // other side's previous query
+    mu = src == dest ? 0.0 : Double.POSITIVE_INFINITY;
+    while (true) {
+      final boolean forwardLive =
+          !forward.frontier.isEmpty() && forward.frontier.topKey() < mu;
+      final boolean backwardLive =
+          !backward.frontier.isEmpty() && backward.frontier.topKey() < mu;
+      if (!forwardLive && !backwardLive) {
+        return mu;
+      }
+      final Side side = !backwardLive || forwardLive
+          && forward.frontier.topKey() <= backward.frontier.topKey() ? forward : backward;
+      side.settleNext();
+      side.scan();
+    }
+  }
+
+  /**
+   * Get the number of vertices settled by the last query, counting both
+   * searches.
+   * 
+   * @return int The number of settled vertices.
+   */
+  public int getSettledCount() {
+    return forward.getSettledCount() + backward.getSettledCount();
+  }
+
+  /**
+   * Get the number of vertices in the hierarchy.
+   * 
+   * @return int The number of vertices.
+   */
+  public int getNumberOfVertices() {
+    return vertices.length;
+  }
+
+  /**
+   * Get the number of shortcut edges contraction added.
+   * 
+   * @return int The number of shortcuts.
+   */
+  public int getShortcutCount() {
+    return shortcuts;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Vertex<String>[] newVertices(final int length) {
+    return (Vertex<String>[]) new Vertex<?>[length];
+  }
+
+  private static int[] readInts(final DataInputStream in, final int length)
+      throws IOException {
+    final int[] values = new int[length];
+    for (int i = 0; i < length; i++) {
+      values[i] = in.readInt();
+    }
+    return values;
+  }
+
+  private static double[] readDoubles(final DataInputStream in, final int length)
+      throws IOException {
+    final double[] values = new double[length];
+    for (int i = 0; i < length; i++) {
+      values[i] = in.readDouble();
+    }
+    return values;
+  }
+
+  private static void writeInts(final DataOutputStream out, final int[] values)
+      throws IOException {
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+
+  private static void writeDoubles(final DataOutputStream out, final double[] values)
+      throws IOException {
+    for (double value : values) {
+      out.writeDouble(value);
+    }
+  }
+
+  /**
+   * One direction of a query. Each vertex it reaches that the other direction
+   * has also reached closes a path, which may improve mu.
+   */
+  private final class Side extends DijkstraEngine<T> {
+
+    Side(final IndexedWeightedGraph<T> graph) {
+      super(graph);
+    }
+
+    @Override
+    protected void reached(final int slot, final double distance) {
+      final Side other = this == forward ? backward : forward;
+      if (distance + other.dist[slot] < mu) {
+        mu = distance + other.dist[slot];
+      }
+    }
+  }
+
+  /**
+   * Contracts a copy of a graph and collects the upward and downward edges.
+   */
+  private static final class Builder<T> {
+
+    private final Vertex<T>[] vertices;
+
+    /**
+     * out[v] and in[v] hold each remaining neighbor of v with the weight of
+     * the lightest edge from v to it and from it to v.
+     */
+    private final EdgeList[] out;
+
+    private final EdgeList[] in;
+
+    /**
+     * The number of contracted neighbors of each vertex.
+     */
+    private final int[] contractedNeighbors;
+
+    /**
+     * The edges recorded when each vertex was contracted: to more important
+     * vertices (up) and from them (down).
+     */
+    private final int[][] upTargets;
+
+    private final double[][] upWeights;
+
+    private final int[][] downTargets;
+
+    private final double[][] downWeights;
+
+    private int shortcuts;
+
+    /**
+     * The witness search: distances, the slots whose distance is set, and
+     * the frontier.
+     */
+    private final double[] witnessDist;
+
+    private final int[] witnessTouched;
+
+    private int witnessTouchedCount;
+
+    private final IndexedMinHeap witnessFrontier;
+
+    Builder(final WeightedGraph<T> graph) {
+      this.vertices = graph.getVertices();
+      final int n = vertices.length;
+      final Map<Vertex<T>, Integer> indices = new HashMap<Vertex<T>, Integer>();
+      for (int i = 0; i < n; i++) {
+        indices.put(vertices[i], i);
+      }
+      this.out = new EdgeList[n];
+      this.in = new EdgeList[n];
+      for (int i = 0; i < n; i++) {
+        out[i] = new EdgeList();
+        in[i] = new EdgeList();
+      }
+      for (int i = 0; i < n; i++) {
+        final List<Vertex<T>> neighbors = graph.getNeighbors(vertices[i]);
+        for (Vertex<T> neighbor : neighbors) {
+          final double weight = graph.getEdgeWeight(vertices[i], neighbor);
+          if (weight < 0) {
+            throw new IllegalArgumentException("negative edge weight: " + weight);
+          }
+          final int j = indices.get(neighbor);
+          if (j != i) {
+            addEdge(i, j, weight);
+          }
+        }
+      }
+      this.contractedNeighbors = new int[n];
+      this.upTargets = new int[n][];
+      this.upWeights = new double[n][];
+      this.downTargets = new int[n][];
+      this.downWeights = new double[n][];
+      this.witnessDist = new double[n];
+      Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+      this.witnessTouched = new int[n];
+      this.witnessFrontier = new IndexedMinHeap(n);
+    }
+
+    ContractionHierarchy<T> build() {
+      final int n = vertices.length;
+      final IndexedMinHeap order = new IndexedMinHeap(n);
+      for (int v = 0; v < n; v++) {
+        order.insert(v, importance(v));
+      }
+      while (!order.isEmpty()) {
+        final int v = order.top();
+        // importance only grows stale as neighbors are contracted; if v is
+        // no longer the least important, put it back with its new value
+        final double current = importance(v);
+        if (!order.isEmpty() && current > order.topKey()) {
+          order.insert(v, current);
+          continue;
+        }
+        contract(v);
+      }
+
+      final int[] upOffsets = new int[n + 1];
+      final int[] downOffsets = new int[n + 1];
+      for (int v = 0; v < n; v++) {
+        upOffsets[v + 1] = upOffsets[v] + upTargets[v].length;
+        downOffsets[v + 1] = downOffsets[v] + downTargets[v].length;
+      }
+      final int[] up = new int[upOffsets[n]];
+      final double[] upCost = new double[upOffsets[n]];
+      final int[] down = new int[downOffsets[n]];
+      final double[] downCost = new double[downOffsets[n]];
+      for (int v = 0; v < n; v++) {
+        System.arraycopy(upTargets[v], 0, up, upOffsets[v], upTargets[v].length);
+        System.arraycopy(upWeights[v], 0, upCost, upOffsets[v], upWeights[v].length);
+        System.arraycopy(downTargets[v], 0, down, downOffsets[v], downTargets[v].length);
+        System.arraycopy(downWeights[v], 0, downCost, downOffsets[v], downWeights[v].length);
+      }
+      return new ContractionHierarchy<T>(vertices, upOffsets, up, upCost, downOffsets, down,
+          downCost, shortcuts);
+    }
+
+    /**
+     * Get the importance of v: the shortcuts contracting it would add, less
+     * the edges it would remove, plus its contracted neighbors.
+     */
+    private double importance(final int v) {
+      return shortcutsFor(v, false) - out[v].size - in[v].size + contractedNeighbors[v];
+    }
+
+    /**
+     * Remove v from the remaining graph, adding the shortcuts it needs and
+     * recording its edges to and from the vertices that remain, all of which
+     * are more important.
+     */
+    private void contract(final int v) {
+      shortcuts += shortcutsFor(v, true);
+
+      final EdgeList up = out[v];
+      final EdgeList down = in[v];
+      upTargets[v] = Arrays.copyOf(up.targets, up.size);
+      upWeights[v] = Arrays.copyOf(up.weights, up.size);
+      for (int e = 0; e < up.size; e++) {
+        in[up.targets[e]].remove(v);
+        contractedNeighbors[up.targets[e]]++;
+      }
+      downTargets[v] = Arrays.copyOf(down.targets, down.size);
+      downWeights[v] = Arrays.copyOf(down.weights, down.size);
+      for (int e = 0; e < down.size; e++) {
+        out[down.targets[e]].remove(v);
+        if (up.indexOf(down.targets[e]) == -1) {
+          contractedNeighbors[down.targets[e]]++;
+        }
+      }
+      up.size = 0;
+      down.size = 0;
+    }
+
+    /**
+     * Count, and if <code>add</code> is set add, the shortcuts needed to
+     * contract v: one from u to w for every in-neighbor u and out-neighbor w
+     * with no witness path at most as short as u, v, w.
+     */
+    private int shortcutsFor(final int v, final boolean add) {
+      final EdgeList sources = in[v];
+      final EdgeList targets = out[v];
+      int count = 0;
+      for (int first = 0; first < sources.size; first++) {
+        final int u = sources.targets[first];
+        double limit = 0;
+        for (int second = 0; second < targets.size; second++) {
+          if (targets.targets[second] != u) {
+            limit = Math.max(limit, sources.weights[first] + targets.weights[second]);
+          }
+        }
+        witnessSearch(u, v, limit);
+        for (int second = 0; second < targets.size; second++) {
+          final int w = targets.targets[second];
+          final double cost = sources.weights[first] + targets.weights[second];
+          if (w != u && witnessDist[w] > cost) {
+            count++;
+            if (add) {
+              addEdge(u, w, cost);
+            }
+          }
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Run Dijkstra from <code>source</code> over the remaining graph without
+     * <code>avoid</code>, stopping past distance <code>limit</code> or after
+     * <code>WITNESS_SETTLE_LIMIT</code> vertices. Afterwards witnessDist holds
+     * an upper bound on the distance to each vertex.
+     */
+    private void witnessSearch(final int source, final int avoid, final double limit) {
+      for (int i = 0; i < witnessTouchedCount; i++) {
+        witnessDist[witnessTouched[i]] = Double.POSITIVE_INFINITY;
+      }
+      witnessTouchedCount = 0;
+      witnessFrontier.clear();
+      witnessDist[source] = 0.0;
+      witnessTouched[witnessTouchedCount++] = source;
+      witnessFrontier.insert(source, 0.0);
+      int settled = 0;
+      while (!witnessFrontier.isEmpty() && witnessFrontier.topKey() <= limit
+             && settled++ < WITNESS_SETTLE_LIMIT) {
+        final double distance = witnessFrontier.topKey();
+        final int x = witnessFrontier.top();
+        final EdgeList edges = out[x];
+        for (int e = 0; e < edges.size; e++) {
+          final int y = edges.targets[e];
+          final double next = distance + edges.weights[e];
+          if (y != avoid && next < witnessDist[y]) {
+            if (witnessDist[y] == Double.POSITIVE_INFINITY) {
+              witnessTouched[witnessTouchedCount++] = y;
+              witnessFrontier.insert(y, next);
+            } else {
+              witnessFrontier.decreaseKey(y, next);
+            }
+            witnessDist[y] = next;
+          }
+        }
+      }
+    }
+
+    /**
+     * Add an edge from u to w, keeping the lighter of it and any edge already
+     * there.
+     */
+    private void addEdge(final int u, final int w, final double weight) {
+      if (out[u].putIfLighter(w, weight)) {
+        in[w].putIfLighter(u, weight);
+      }
+    }
+  }
+
+  /**
+   * The remaining edges of one vertex in one direction, as parallel arrays of
+   * neighbors and weights of which the first size are in use. Degrees stay
+   * small during contraction, so a lookup scans the neighbors.
+   */
+  private static final class EdgeList {
+
+    private int[] targets = new int[4];
+
+    private double[] weights = new double[4];
+
+    private int size;
+
+    /**
+     * Get the index of the edge to target, or -1 if there is none.
+     */
+    int indexOf(final int target) {
+      for (int e = 0; e < size; e++) {
+        if (targets[e] == target) {
+          return e;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Set the edge to target to weight, unless it is there and no heavier.
+     * 
+     * @return boolean Whether the edge was set.
+     */
+    boolean putIfLighter(final int target, final double weight) {
+      final int e = indexOf(target);
+      if (e != -1) {
+        if (weight >= weights[e]) {
+          return false;
+        }
+        weights[e] = weight;
+        return true;
+      }
+      if (size == targets.length) {
+        targets = Arrays.copyOf(targets, 2 * size);
+        weights = Arrays.copyOf(weights, 2 * size);
+      }
+      targets[size] = target;
+      weights[size++] = weight;
+      return true;
+    }
+
+    /**
+     * Remove the edge to target, if there is one, by moving the last edge
+     * into its place.
+     */
+    void remove(final int target) {
+      final int e = indexOf(target);
+      if (e != -1) {
+        size--;
+        targets[e] = targets[size];
+        weights[e] = weights[size];
+      }
+    }
+  }
+}
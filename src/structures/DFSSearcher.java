@@ -2,6 +2,7 @@
 package structures;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +16,33 @@ public class DFSSearcher<T> {
 
   private boolean pathFound;
 
+  /**
+   * The graph as an <code>IndexedGraph</code>, or <code>null</code> if it is
+   * not one.
+   */
+  private final IndexedGraph<T> indexed;
+
+  /**
+   * The neighbor slots of every vertex on the current path, each vertex's
+   * above those of the vertex before it; top is the first free entry.
+   */
+  private int[] slotStack = new int[16];
+
+  private int top;
+
+  /**
+   * Pushes each neighbor slot it is given onto slotStack.
+   */
+  private final NeighborVisitor pusher = new NeighborVisitor() {
+    @Override
+    public void visit(final int slot) {
+      if (top == slotStack.length) {
+        slotStack = Arrays.copyOf(slotStack, 2 * top);
+      }
+      slotStack[top++] = slot;
+    }
+  };
+
   /**
    * 
    * @param g The graph to search.
@@ -22,6 +50,7 @@ public class DFSSearcher<T> {
    */
   public DFSSearcher(final Graph<T> g) {
     this.graph = g;
+    this.indexed = g instanceof IndexedGraph ? (IndexedGraph<T>) g : null;
   }
 
   /**
@@ -106,6 +135,7 @@ public class DFSSearcher<T> {
     pathFound = false;
     visited = new HashMap<Vertex<T>, Vertex<T>>();
     visited.put(origin, new Vertex(""));
+    top = 0;
     dfs(origin, target);
   }
 
@@ -114,8 +144,25 @@ public class DFSSearcher<T> {
       pathFound = true;
       return;
     }
+    final int slot = indexed == null ? -1 : indexed.indexOf(origin);
+    if (slot != -1) {
+      // an indexed graph passes its neighbors to a visitor, so no list is
+      // built; visit them in order, as popping the stack below would
+      final int base = top;
+      indexed.forEachNeighbor(slot, pusher);
+      final int end = top;
+      for (int i = base; i < end; i++) {
+        final Vertex<T> v = indexed.vertexAt(slotStack[i]);
+        if (visited.get(v) == null) {
+          visited.put(v, origin);
+          dfs(v, target);
+        }
+      }
+      top = base;
+      return;
+    }
     final Stack<Vertex<T>> neighborsToVisit = new Stack<Vertex<T>>();
-    final List<Vertex<T>> neighbors = (ArrayList<Vertex<T>>) graph.getNeighbors(origin);
+    final List<Vertex<T>> neighbors = graph.getNeighbors(origin);
     // push 'em in reverse order to "leftmost" neighbor is on top
     for (int i = neighbors.size() - 1; i >= 0; i--) {
       neighborsToVisit.push(neighbors.get(i));
@@ -0,0 +1,288 @@
+
+package structures;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Dijkstra's shortest path algorithm over the slots of an
+ * <code>IndexedWeightedGraph</code>. Tentative distances are kept in a
+ * primitive <code>double[]</code>, settled vertices in a <code>BitSet</code>
+ * and the frontier in an <code>IndexedMinHeap</code>, whose
+ * <code>decreaseKey()</code> means each vertex is queued at most once and no
+ * stale entries are ever popped. Edges are read with
+ * <code>forEachNeighbor()</code>, so a query allocates nothing per edge.
+ * 
+ * The arrays are kept between queries and only the entries a query touched
+ * are reset by the next one, so an engine answers repeated queries on the
+ * same graph without allocating. An engine is not thread-safe; give each
+ * thread its own.
+ */
+public class DijkstraEngine<T> {
+
+  /**
+   * The graph to search.
+   */
+  protected final IndexedWeightedGraph<T> graph;
+
+  /**
+   * dist[s] is the best known distance from the source to slot s, or
+   * <code>Double.POSITIVE_INFINITY</code> if s has not been reached.
+   */
+  protected double[] dist;
+
+  /**
+   * pred[s] is the slot before s on the best known path to s, or -1 for the
+   * source. Meaningful only where dist[s] is finite.
+   */
+  protected int[] pred;
+
+  /**
+   * The slots whose distance is final.
+   */
+  protected final BitSet settled;
+
+  /**
+   * The reached but unsettled slots, keyed by distance.
+   */
+  protected final IndexedMinHeap frontier;
+
+  /**
+   * The slots whose dist entry the current query has set; touched[0] to
+   * touched[touchedCount - 1].
+   */
+  private int[] touched;
+
+  private int touchedCount;
+
+  /**
+   * The slot whose edges are being relaxed, and its distance.
+   */
+  private int current;
+
+  private double currentDistance;
+
+  /**
+   * Relaxes each edge leaving the slot being settled.
+   */
+  private final WeightedNeighborVisitor relaxer = new WeightedNeighborVisitor() {
+    @Override
+    public void visit(final int slot, final double weight) {
+      relax(slot, currentDistance + weight, current);
+    }
+  };
+
+  /**
+   * Constructor. Create an engine for <code>graph</code>.
+   * 
+   * @param graph The graph to search; must not be <code>null</code>.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public DijkstraEngine(final IndexedWeightedGraph<T> graph) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    this.graph = graph;
+    final int capacity = graph.getCapacity();
+    this.dist = new double[capacity];
+    Arrays.fill(dist, Double.POSITIVE_INFINITY);
+    this.pred = new int[capacity];
+    this.settled = new BitSet(capacity);
+    this.frontier = new IndexedMinHeap(capacity);
+    this.touched = new int[capacity];
+  }
+
+  /**
+   * Find the cost of a minimal path from <code>src</code> to
+   * <code>dest</code>. Assumes edge weights are positive.
+   * 
+   * @param src Vertex The first vertex in the path; must be in the graph.
+   * @param dest Vertex The last vertex in the path.
+   * @return double The cost of the path or -1 if none is found.
+   * @throws IllegalArgumentException if <code>src</code> or
+   *           <code>dest</code> are <code>null</code>, or <code>src</code> is
+   *           not in the graph.
+   */
+  public double minimalPath(final Vertex<T> src, final Vertex<T> dest) {
+    final int from = graph.indexOf(src);
+    if (from == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    final int to = graph.indexOf(dest);
+    if (to == -1) {
+      return -1;
+    }
+    final double cost = distance(from, to);
+    return cost == Double.POSITIVE_INFINITY ? -1 : cost;
+  }
+
+  /**
+   * Find the cost of a minimal path between two slots.
+   * 
+   * @param src The slot of the first vertex in the path.
+   * @param dest The slot of the last vertex in the path.
+   * @return double The cost of the path, or
+   *         <code>Double.POSITIVE_INFINITY</code> if there is none.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  public double distance(final int src, final int dest) {
+    search(src, dest);
+    return dist[dest];
+  }
+
+  /**
+   * Find the minimal paths from <code>src</code> to every vertex it can reach.
+   * This costs one full run of Dijkstra's algorithm, after which the cost of
+   * and route to any destination can be read from the tree.
+   * 
+   * @param src Vertex The vertex the paths start at; must be in the graph.
+   * @return ShortestPathTree The distances and predecessors of every slot.
+   * @throws IllegalArgumentException if <code>src</code> is <code>null</code>
+   *           or not in the graph.
+   */
+  public ShortestPathTree<T> shortestPathTree(final Vertex<T> src) {
+    final int from = graph.indexOf(src);
+    if (from == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    search(from, -1);
+    return new ShortestPathTree<T>(graph, from, Arrays.copyOf(dist, dist.length),
+        Arrays.copyOf(pred, pred.length));
+  }
+
+  /**
+   * Run Dijkstra's algorithm from <code>src</code> until <code>dest</code> is
+   * settled, or until every reachable slot is settled if <code>dest</code> is
+   * -1. Afterwards dist holds the final distance of every settled slot.
+   * 
+   * @param src The slot to search from.
+   * @param dest The slot to stop at, or -1.
+   */
+  protected void search(final int src, final int dest) {
+    start(src);
+    while (!frontier.isEmpty()) {
+      if (settleNext() == dest) {
+        return;
+      }
+      scan();
+    }
+  }
+
+  /**
+   * Get the number of slots settled by the last query. A search that stops
+   * early settles fewer slots, so this measures how much work a query did.
+   * 
+   * @return int The number of settled slots.
+   */
+  public int getSettledCount() {
+    return settled.cardinality();
+  }
+
+  /**
+   * Forget the previous query and put <code>src</code> on the frontier at
+   * distance 0. Together with <code>settleNext()</code> and
+   * <code>scan()</code> this lets a subclass drive the search one slot at a
+   * time.
+   * 
+   * @param src The slot to search from.
+   */
+  protected void start(final int src) {
+    reset();
+    relax(src, 0.0, -1);
+  }
+
+  /**
+   * Settle the frontier slot with the smallest distance. The frontier must
+   * not be empty.
+   * 
+   * @return int The slot settled.
+   */
+  protected int settleNext() {
+    current = frontier.top();
+    currentDistance = dist[current];
+    settled.set(current);
+    return current;
+  }
+
+  /**
+   * Relax every edge leaving the slot last settled by
+   * <code>settleNext()</code>.
+   */
+  protected void scan() {
+    graph.forEachNeighbor(current, relaxer);
+  }
+
+  /**
+   * Called whenever the tentative distance to <code>slot</code> improves. Does
+   * nothing; a subclass may override it to watch the search.
+   * 
+   * @param slot The slot reached.
+   * @param distance Its new tentative distance.
+   */
+  protected void reached(final int slot, final double distance) {
+    // no action by default
+  }
+
+  /**
+   * Get the key that orders <code>slot</code> on the frontier. Dijkstra's
+   * algorithm orders by distance; a subclass may add an estimate of the
+   * distance still to go, as A* does.
+   * 
+   * @param slot The slot being queued.
+   * @param distance Its tentative distance.
+   * @return double The key, here <code>distance</code>.
+   */
+  protected double priority(final int slot, final double distance) {
+    return distance;
+  }
+
+  /**
+   * Offer <code>distance</code>, by way of slot <code>via</code>, as a new
+   * tentative distance to <code>slot</code>.
+   */
+  private void relax(final int slot, final double distance, final int via) {
+    if (slot >= dist.length) {
+      // a concurrent graph may have grown since the query began
+      grow(graph.getCapacity());
+    }
+    if (distance < dist[slot] && !settled.get(slot)) {
+      if (dist[slot] == Double.POSITIVE_INFINITY) {
+        touched[touchedCount++] = slot;
+        frontier.insert(slot, priority(slot, distance));
+      } else {
+        frontier.decreaseKey(slot, priority(slot, distance));
+      }
+      dist[slot] = distance;
+      pred[slot] = via;
+      reached(slot, distance);
+    }
+  }
+
+  /**
+   * Undo the previous query, touching only the slots it reached.
+   */
+  private void reset() {
+    for (int i = 0; i < touchedCount; i++) {
+      dist[touched[i]] = Double.POSITIVE_INFINITY;
+    }
+    touchedCount = 0;
+    settled.clear();
+    frontier.clear();
+    grow(graph.getCapacity());
+  }
+
+  /**
+   * Make room for <code>capacity</code> slots.
+   */
+  private void grow(final int capacity) {
+    if (capacity > dist.length) {
+      final int oldCapacity = dist.length;
+      dist = Arrays.copyOf(dist, capacity);
+      Arrays.fill(dist, oldCapacity, capacity, Double.POSITIVE_INFINITY);
+      pred = Arrays.copyOf(pred, capacity);
+      touched = Arrays.copyOf(touched, capacity);
+      frontier.ensureCapacity(capacity);
+    }
+  }
+}
@@ -0,0 +1,384 @@
+
+package structures;
+
+/**
+ * All-pairs shortest path costs and routes that are kept up to date as edge
+ * weights change, instead of being found again from scratch in O(V^3).
+ * 
+ * Every change to an edge goes through <code>setEdgeWeight()</code>,
+ * <code>addEdge()</code> or <code>removeEdge()</code>, which change the
+ * graph and then repair the matrix:
+ * <ul>
+ * <li>When an edge from u to v gets cheaper, or is added, with weight w, a
+ * pair (i, j) improves only if <code>d(i, u) + w + d(v, j) < d(i, j)</code>.
+ * Only sources that now reach v more cheaply, and destinations that u now
+ * reaches more cheaply, can improve, so one O(V^2) pass over those pairs
+ * brings the matrix up to date.</li>
+ * <li>When an edge from u to v gets dearer, or is removed, only sources with
+ * a shortest path through it are affected, and each such source i has
+ * <code>d(i, u) + w(u, v) = d(i, v)</code>. Those rows alone are found again
+ * by Dijkstra's algorithm over the changed graph; every other row keeps its
+ * costs and routes.</li>
+ * </ul>
+ * Both directions of an edge are checked, so an undirected graph, where one
+ * call changes both, is handled as well.
+ * 
+ * The set of vertices is fixed when this object is created. After adding or
+ * removing vertices call <code>recompute()</code>. Weights must not be
+ * negative. Not thread-safe.
+ */
+public class DynamicAllPairs<T> {
+
+  /**
+   * How far, relative to d(i, v), d(i, u) + w(u, v) may exceed d(i, v) and
+   * still count as a shortest path through the edge; allows for the rounding
+   * of costs summed in different orders. Counting too many rows as affected
+   * costs only time.
+   */
+  private static final double TOLERANCE = 1e-9;
+
+  /**
+   * The graph whose shortest paths are kept.
+   */
+  private final IndexedWeightedGraph<T> graph;
+
+  /**
+   * Finds every shortest path when this object is created or recomputed.
+   */
+  private final AllPairsShortestPaths<T> provider;
+
+  /**
+   * The engine that finds affected rows again.
+   */
+  private final DijkstraEngine<T> engine;
+
+  /**
+   * index[s] is the row of slot s, or -1 for a free slot; slots[r] is the
+   * slot of row r.
+   */
+  private int[] index;
+
+  private int[] slots;
+
+  /**
+   * The cost of a minimal path from row i to row j at [i][j].
+   */
+  private double[][] paths;
+
+  /**
+   * The row after row i on a minimal path from row i to row j at [i][j], or
+   * -1 if there is none.
+   */
+  private int[][] nextHops;
+
+  /**
+   * Scratch space: the destinations an improved edge may shorten, the rows
+   * that must be found again, and one first-hop row and stack in slot order.
+   */
+  private int[] targets;
+
+  private boolean[] affected;
+
+  private int[] slotHops;
+
+  private int[] stack;
+
+  /**
+   * Constructor. Find every shortest path of <code>graph</code> by
+   * Floyd-Warshall.
+   * 
+   * @param graph The graph to keep shortest paths for; must not be
+   *          <code>null</code>.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public DynamicAllPairs(final IndexedWeightedGraph<T> graph) {
+    this(graph, new FloydAllPairs<T>());
+  }
+
+  /**
+   * Constructor. Find every shortest path of <code>graph</code> with
+   * <code>provider</code>, which is used again by <code>recompute()</code>.
+   * 
+   * @param graph The graph to keep shortest paths for; must not be
+   *          <code>null</code>.
+   * @param provider The algorithm for the initial paths; must not be
+   *          <code>null</code>.
+   * @throws IllegalArgumentException if either argument is
+   *           <code>null</code>.
+   */
+  public DynamicAllPairs(final IndexedWeightedGraph<T> graph,
+      final AllPairsShortestPaths<T> provider) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    if (provider == null) {
+      throw new IllegalArgumentException("null provider");
+    }
+    this.graph = graph;
+    this.provider = provider;
+    this.engine = new DijkstraEngine<T>(graph);
+    recompute();
+  }
+
+  /**
+   * Find every shortest path again from scratch. Needed after vertices are
+   * added or removed; replaces the arrays returned by
+   * <code>getShortestPaths()</code> and <code>getNextHops()</code>.
+   */
+  public void recompute() {
+    final int capacity = graph.getCapacity();
+    index = new int[capacity];
+    int n = 0;
+    for (int slot = 0; slot < capacity; slot++) {
+      index[slot] = graph.vertexAt(slot) == null ? -1 : n++;
+    }
+    slots = new int[n];
+    for (int slot = 0; slot < capacity; slot++) {
+      if (index[slot] != -1) {
+        slots[index[slot]] = slot;
+      }
+    }
+    nextHops = new int[n][n];
+    paths = provider.shortestPaths(graph, nextHops);
+    targets = new int[n];
+    affected = new boolean[n];
+    slotHops = new int[capacity];
+    stack = new int[capacity];
+  }
+
+  /**
+   * Get the cost of a minimal path between every pair of vertices. The array
+   * is updated in place by later changes and must not be modified.
+   * 
+   * @return double[][] The cost of a minimal path from vertex i to vertex j
+   *         at [i][j], or <code>Double.POSITIVE_INFINITY</code> if there is
+   *         none. Row and column i belong to the i-th vertex returned by
+   *         <code>getVertices()</code>.
+   */
+  public double[][] getShortestPaths() {
+    return paths;
+  }
+
+  /**
+   * Get the first hop of a minimal path between every pair of vertices, in
+   * the form <code>WeightedAdjMatrixGraph.floydRoute()</code> takes. The
+   * array is updated in place by later changes and must not be modified.
+   * 
+   * @return int[][] The index of the vertex after vertex i on a minimal path
+   *         from vertex i to vertex j at [i][j], or -1 if there is none.
+   */
+  public int[][] getNextHops() {
+    return nextHops;
+  }
+
+  /**
+   * Get the cost of a minimal path from <code>src</code> to
+   * <code>dest</code>.
+   * 
+   * @param src The first vertex in the path; must be in the graph.
+   * @param dest The last vertex in the path; must be in the graph.
+   * @return double The cost of the path, or
+   *         <code>Double.POSITIVE_INFINITY</code> if there is none.
+   * @throws IllegalArgumentException if either vertex is <code>null</code>
+   *           or not in the graph.
+   */
+  public double getDistance(final Vertex<T> src, final Vertex<T> dest) {
+    return paths[rowOf(src)][rowOf(dest)];
+  }
+
+  /**
+   * Get the largest cost of a minimal path between any two vertices.
+   * 
+   * @return double The diameter, or <code>Double.POSITIVE_INFINITY</code> if
+   *         some vertex cannot reach another.
+   */
+  public double getDiameter() {
+    double diameter = 0.0;
+    for (double[] row : paths) {
+      for (double cost : row) {
+        diameter = Math.max(diameter, cost);
+      }
+    }
+    return diameter;
+  }
+
+  /**
+   * Change the weight of the edge from <code>v1</code> to <code>v2</code> and
+   * update the shortest paths.
+   * 
+   * @param v1 The source vertex; must be in the graph.
+   * @param newWeight The new weight of the edge; must be >= 0.
+   * @param v2 The destination vertex; must be in the graph.
+   * @throws IllegalArgumentException if either vertex is <code>null</code>
+   *           or not in the graph, there is no such edge, or
+   *           <code>newWeight</code> < 0.
+   */
+  public void setEdgeWeight(final Vertex<T> v1, final double newWeight, final Vertex<T> v2) {
+    final int from = rowOf(v1);
+    final int to = rowOf(v2);
+    final double oldForward = weight(from, to);
+    final double oldBackward = weight(to, from);
+    graph.setEdgeWeight(v1, newWeight, v2);
+    update(from, to, oldForward, oldBackward);
+  }
+
+  /**
+   * Add an edge from <code>v1</code> to <code>v2</code> and update the
+   * shortest paths.
+   * 
+   * @param v1 The source vertex; must be in the graph.
+   * @param weight The weight of the edge; must be >= 0.
+   * @param v2 The destination vertex; must be in the graph.
+   * @throws IllegalArgumentException if either vertex is <code>null</code>
+   *           or not in the graph, the edge already exists, or
+   *           <code>weight</code> < 0.
+   */
+  public void addEdge(final Vertex<T> v1, final double weight, final Vertex<T> v2) {
+    final int from = rowOf(v1);
+    final int to = rowOf(v2);
+    final double oldForward = weight(from, to);
+    final double oldBackward = weight(to, from);
+    graph.addEdge(v1, weight, v2);
+    update(from, to, oldForward, oldBackward);
+  }
+
+  /**
+   * Remove the edge from <code>v1</code> to <code>v2</code> and update the
+   * shortest paths.
+   * 
+   * @param v1 The source vertex; must be in the graph.
+   * @param v2 The destination vertex; must be in the graph.
+   * @throws IllegalArgumentException if either vertex is <code>null</code>
+   *           or not in the graph, or there is no such edge.
+   */
+  public void removeEdge(final Vertex<T> v1, final Vertex<T> v2) {
+    final int from = rowOf(v1);
+    final int to = rowOf(v2);
+    final double oldForward = weight(from, to);
+    final double oldBackward = weight(to, from);
+    graph.removeEdge(v1, v2);
+    update(from, to, oldForward, oldBackward);
+  }
+
+  /**
+   * Repair the matrix after the edges between rows <code>u</code> and
+   * <code>v</code>, in either direction, may have changed. Rows hurt by an
+   * increase are found first, against the old costs; the decreases are then
+   * applied on top.
+   */
+  private void update(final int u, final int v, final double oldForward,
+      final double oldBackward) {
+    final double newForward = weight(u, v);
+    final double newBackward = weight(v, u);
+    boolean increased = false;
+    if (newForward > oldForward) {
+      increased |= markAffected(u, v, oldForward);
+    }
+    if (newBackward > oldBackward) {
+      increased |= markAffected(v, u, oldBackward);
+    }
+    if (increased) {
+      for (int row = 0; row < affected.length; row++) {
+        if (affected[row]) {
+          affected[row] = false;
+          searchRow(row);
+        }
+      }
+    }
+    if (newForward < oldForward) {
+      decrease(u, v, newForward);
+    }
+    if (newBackward < oldBackward) {
+      decrease(v, u, newBackward);
+    }
+  }
+
+  /**
+   * Mark every row with a shortest path through the edge from row
+   * <code>u</code> to row <code>v</code> of weight <code>weight</code>.
+   * 
+   * @return boolean <code>true</code> if any row was marked.
+   */
+  private boolean markAffected(final int u, final int v, final double weight) {
+    boolean any = false;
+    for (int i = 0; i < paths.length; i++) {
+      // NaN when i reaches neither end, which is not affected
+      if (paths[i][u] + weight - paths[i][v] <= TOLERANCE * paths[i][v]) {
+        affected[i] = true;
+        any = true;
+      }
+    }
+    return any;
+  }
+
+  /**
+   * Lower every cost that the edge from row <code>u</code> to row
+   * <code>v</code>, now of weight <code>weight</code>, improves. Row v and
+   * column u cannot improve, since weights are non-negative, so they may be
+   * read while other entries are written.
+   */
+  private void decrease(final int u, final int v, final double weight) {
+    int count = 0;
+    for (int j = 0; j < paths.length; j++) {
+      if (weight + paths[v][j] < paths[u][j]) {
+        targets[count++] = j;
+      }
+    }
+    if (count == 0) {
+      return;
+    }
+    for (int i = 0; i < paths.length; i++) {
+      final double toV = paths[i][u] + weight;
+      if (toV < paths[i][v]) {
+        final double[] row = paths[i];
+        final int hop = i == u ? v : nextHops[i][u];
+        for (int t = 0; t < count; t++) {
+          final int j = targets[t];
+          if (toV + paths[v][j] < row[j]) {
+            row[j] = toV + paths[v][j];
+            nextHops[i][j] = hop;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Find the costs and first hops of one row again by Dijkstra's algorithm.
+   */
+  private void searchRow(final int row) {
+    final int source = slots[row];
+    engine.search(source, -1);
+    JohnsonAllPairs.firstHops(source, engine.dist, engine.pred, slotHops, stack);
+    for (int j = 0; j < slots.length; j++) {
+      paths[row][j] = engine.dist[slots[j]];
+      final int hop = slotHops[slots[j]];
+      nextHops[row][j] = hop == -1 ? -1 : index[hop];
+    }
+  }
+
+  /**
+   * Get the weight of the edge from row <code>from</code> to row
+   * <code>to</code>, or <code>Double.POSITIVE_INFINITY</code> if there is
+   * none.
+   */
+  private double weight(final int from, final int to) {
+    return graph.hasEdge(slots[from], slots[to])
+        ? graph.getEdgeWeight(slots[from], slots[to]) : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Get the row of <code>v</code>.
+   * 
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code>
+   *           or has no row.
+   */
+  private int rowOf(final Vertex<T> v) {
+    final int slot = graph.indexOf(v);
+    if (slot == -1 || slot >= index.length || index[slot] == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    return index[slot];
+  }
+}
@@ -0,0 +1,72 @@
+
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * All-pairs shortest paths by the Floyd-Warshall algorithm, in O(V^3) time
+ * and O(V^2) memory. The best choice for dense graphs; the rows of each step
+ * may be split across several threads.
+ */
+public class FloydAllPairs<T> implements AllPairsShortestPaths<T> {
+
+  /**
+   * The number of threads to use.
+   */
+  private final int parallelism;
+
+  /**
+   * Constructor. Create a provider that runs on the calling thread.
+   */
+  public FloydAllPairs() {
+    this(1);
+  }
+
+  /**
+   * Constructor. Create a provider that runs on <code>parallelism</code>
+   * threads.
+   * 
+   * @param parallelism The number of threads to use; must be at least 1.
+   * @throws IllegalArgumentException if <code>parallelism</code> < 1.
+   */
+  public FloydAllPairs(final int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1");
+    }
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public double[][] shortestPaths(final IndexedWeightedGraph<T> graph, final int[][] next_hops) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    // index[s] is the row of slot s, or -1 for a free slot
+    final int[] index = new int[graph.getCapacity()];
+    int n = 0;
+    for (int slot = 0; slot < index.length; slot++) {
+      index[slot] = graph.vertexAt(slot) == null ? -1 : n++;
+    }
+    if (next_hops != null) {
+      FloydWarshall.checkSquare(next_hops, n);
+    }
+
+    final double[][] paths = new double[n][n];
+    for (int slot = 0; slot < index.length; slot++) {
+      if (index[slot] != -1) {
+        final double[] row = paths[index[slot]];
+        Arrays.fill(row, Double.POSITIVE_INFINITY);
+        row[index[slot]] = 0.0;
+        graph.forEachNeighbor(slot, new WeightedNeighborVisitor() {
+          @Override
+          public void visit(final int neighbor, final double weight) {
+            row[index[neighbor]] = Math.min(row[index[neighbor]], weight);
+          }
+        });
+      }
+    }
+
+    FloydWarshall.rows(paths, next_hops, parallelism);
+    return paths;
+  }
+}
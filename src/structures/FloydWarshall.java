@@ -0,0 +1,515 @@
+
+package structures;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Floyd-Warshall all-pairs shortest paths over a distance matrix stored as a
+ * flat, row-major <code>double[]</code>: the distance from vertex i to vertex
+ * j of an n-vertex graph is element <code>i * n + j</code>. A missing edge is
+ * <code>Double.POSITIVE_INFINITY</code>.
+ * 
+ * <code>blocked()</code> splits the matrix into square tiles and, for each
+ * block of k values, updates the diagonal tile, then the tiles in its row and
+ * column, then every other tile. Each tile update reuses three tiles that fit
+ * in cache, so large matrices are not streamed from memory once per k as they
+ * are by the plain triple loop in <code>simple()</code>.
+ * 
+ * <code>parallel()</code> runs the blocked algorithm on a
+ * <code>ForkJoinPool</code>. For one block of k values the tiles of phase 2
+ * do not depend on one another, nor do the tiles of phase 3, so each phase
+ * is split across the pool. Every tile is still updated by one thread in the
+ * same order as <code>blocked()</code>, so the results are bit-identical.
+ * 
+ * <code>CompactFloydWarshall</code> runs the same blocked loop on
+ * <code>float</code> and <code>int</code> weights through a
+ * <code>TileKernel</code> of its own.
+ */
+public final class FloydWarshall {
+
+  /**
+   * The default tile size; a 64 by 64 tile of doubles is 32 KB.
+   */
+  public static final int DEFAULT_TILE = 64;
+
+  /**
+   * Private constructor to inhibit external instantiation.
+   */
+  private FloydWarshall() {
+    // do not instantiate objects of this class
+  }
+
+  /**
+   * Build the flat distance matrix of <code>graph</code>. Row and column i
+   * belong to the i-th occupied slot, which is the i-th vertex returned by
+   * <code>getVertices()</code>.
+   * 
+   * @param graph The graph to copy; must not be <code>null</code>.
+   * @return double[] The n by n matrix of edge weights, with 0 on the diagonal
+   *         and <code>Double.POSITIVE_INFINITY</code> for missing edges.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public static <T> double[] distanceMatrix(final IndexedWeightedGraph<T> graph) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    // index[s] is the row of slot s, or -1 for a free slot
+    final int[] index = new int[graph.getCapacity()];
+    int n = 0;
+    for (int slot = 0; slot < index.length; slot++) {
+      index[slot] = graph.vertexAt(slot) == null ? -1 : n++;
+    }
+    final double[] dist = new double[n * n];
+    Arrays.fill(dist, Double.POSITIVE_INFINITY);
+    for (int slot = 0; slot < index.length; slot++) {
+      if (index[slot] != -1) {
+        final int rowStart = index[slot] * n;
+        dist[rowStart + index[slot]] = 0.0;
+        graph.forEachNeighbor(slot, new WeightedNeighborVisitor() {
+          @Override
+          public void visit(final int neighbor, final double weight) {
+            final int cell = rowStart + index[neighbor];
+            dist[cell] = Math.min(dist[cell], weight);
+          }
+        });
+      }
+    }
+    return dist;
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * using the plain k, i, j triple loop.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n.
+   */
+  public static void simple(final double[] dist, final int n) {
+    checkMatrix(dist, n);
+    for (int k = 0; k < n; k++) {
+      final int rowK = k * n;
+      for (int i = 0; i < n; i++) {
+        final int rowI = i * n;
+        final double viaK = dist[rowI + k];
+        if (viaK == Double.POSITIVE_INFINITY) {
+          continue; // no path from i to k to extend
+        }
+        relax(dist, rowI, dist, rowK, viaK, 0, n);
+      }
+    }
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * working on <code>DEFAULT_TILE</code> square tiles.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n.
+   */
+  public static void blocked(final double[] dist, final int n) {
+    blocked(dist, n, DEFAULT_TILE);
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * working on square tiles of <code>tile</code> rows and columns.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @param tile The tile size; must be > 0. Three tiles of
+   *          <code>tile * tile</code> doubles should fit in cache.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n or
+   *           <code>tile</code> <= 0.
+   */
+  public static void blocked(final double[] dist, final int n, final int tile) {
+    checkMatrix(dist, n);
+    if (tile <= 0) {
+      throw new IllegalArgumentException("tile must be > 0");
+    }
+    blocked(new DoubleTiles(dist, n), n, tile);
+  }
+
+  /**
+   * Run the blocked loop over an n by n matrix with square tiles of
+   * <code>tile</code> rows and columns. <code>CompactFloydWarshall</code>
+   * runs its <code>float</code> and <code>int</code> matrices through here.
+   * 
+   * @param tiles The tile updates for the matrix.
+   * @param n The number of vertices.
+   * @param tile The tile size; must be > 0.
+   */
+  static void blocked(final TileKernel tiles, final int n, final int tile) {
+    for (int kb = 0; kb < n; kb += tile) {
+      final int kEnd = Math.min(kb + tile, n);
+
+      // phase 1: the diagonal tile depends only on itself
+      tiles.updateTile(kb, kEnd, kb, kEnd, kb, kEnd);
+
+      // phase 2: the tiles in the same row and column as the diagonal tile
+      // depend on themselves and the diagonal tile
+      for (int b = 0; b < n; b += tile) {
+        if (b != kb) {
+          final int end = Math.min(b + tile, n);
+          tiles.updateTile(kb, kEnd, b, end, kb, kEnd);
+          tiles.updateTile(b, end, kb, kEnd, kb, kEnd);
+        }
+      }
+
+      // phase 3: every other tile depends only on the finished tiles of
+      // phase 2, so k need not be the outer loop
+      for (int ib = 0; ib < n; ib += tile) {
+        if (ib != kb) {
+          final int iEnd = Math.min(ib + tile, n);
+          for (int jb = 0; jb < n; jb += tile) {
+            if (jb != kb) {
+              tiles.updateIndependentTile(ib, iEnd, jb, Math.min(jb + tile, n), kb, kEnd);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * working on <code>DEFAULT_TILE</code> square tiles with
+   * <code>parallelism</code> threads. The result is bit-identical to
+   * <code>blocked()</code>.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @param parallelism The number of threads to use; must be > 0.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n or
+   *           <code>parallelism</code> <= 0.
+   */
+  public static void parallel(final double[] dist, final int n, final int parallelism) {
+    final ForkJoinPool pool = newPool(parallelism);
+    try {
+      parallel(dist, n, DEFAULT_TILE, pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Replace each entry of <code>dist</code> with the shortest path distance,
+   * working on square tiles of <code>tile</code> rows and columns on the
+   * threads of <code>pool</code>. The result is bit-identical to
+   * <code>blocked()</code> with the same tile size.
+   * 
+   * @param dist The n by n row-major distance matrix; changed in place.
+   * @param n The number of vertices.
+   * @param tile The tile size; must be > 0.
+   * @param pool The pool to run on; must not be <code>null</code>.
+   * @throws IllegalArgumentException if <code>dist</code> is not n by n,
+   *           <code>tile</code> <= 0 or <code>pool</code> is
+   *           <code>null</code>.
+   */
+  public static void parallel(final double[] dist, final int n, final int tile,
+      final ForkJoinPool pool) {
+    checkMatrix(dist, n);
+    if (tile <= 0) {
+      throw new IllegalArgumentException("tile must be > 0");
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("null pool");
+    }
+    final TileKernel tiles = new DoubleTiles(dist, n);
+    final int blocks = (n + tile - 1) / tile;
+    for (int kb = 0; kb < n; kb += tile) {
+      final int kEnd = Math.min(kb + tile, n);
+      tiles.updateTile(kb, kEnd, kb, kEnd, kb, kEnd);
+      pool.invoke(new BlockTask(tiles, n, tile, kb, false, 0, blocks));
+      pool.invoke(new BlockTask(tiles, n, tile, kb, true, 0, blocks));
+    }
+  }
+
+  /**
+   * Run the Floyd-Warshall loop over the square matrix <code>paths</code>,
+   * filling <code>next_hops</code> if it is not <code>null</code> so that
+   * <code>next_hops[i][j]</code> is the vertex after i on a shortest path from
+   * i to j, or -1 if there is none. With more than one thread the i rows of
+   * each k are split across a ForkJoinPool. Row k does not change while k is
+   * the intermediate vertex, so the rows are independent and the result is
+   * bit-identical to the sequential loop.
+   * 
+   * @param paths The square distance matrix, with 0 on the diagonal; changed
+   *          in place.
+   * @param next_hops The matching next-hop matrix, or <code>null</code>.
+   * @param parallelism The number of threads to use; 1 runs on the calling
+   *          thread.
+   * @throws IllegalArgumentException if <code>parallelism</code> <= 0.
+   */
+  static void rows(final double[][] paths, final int[][] next_hops, final int parallelism) {
+    if (next_hops != null) {
+      // a direct edge is its own first hop
+      for (int i = 0; i < paths.length; i++) {
+        for (int j = 0; j < paths.length; j++) {
+          next_hops[i][j] = i == j || paths[i][j] < Double.POSITIVE_INFINITY ? j : -1;
+        }
+      }
+    }
+    if (parallelism == 1) {
+      for (int k = 0; k < paths.length; k++) {
+        relaxRows(paths, next_hops, k, 0, paths.length);
+      }
+      return;
+    }
+    final ForkJoinPool pool = newPool(parallelism);
+    try {
+      // about eight tasks per thread balances the load without making tiny
+      // tasks
+      final int grain = Math.max(1, paths.length / (parallelism * 8));
+      for (int k = 0; k < paths.length; k++) {
+        pool.invoke(new RowTask(paths, next_hops, k, 0, paths.length, grain));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Check that matrix has size rows of size columns.
+   * 
+   * @throws IllegalArgumentException if it does not.
+   */
+  static void checkSquare(final int[][] matrix, final int size) {
+    if (matrix.length != size) {
+      throw new IllegalArgumentException("matrix must have one row per vertex");
+    }
+    for (int[] row : matrix) {
+      if (row == null || row.length != size) {
+        throw new IllegalArgumentException("matrix must have one column per vertex");
+      }
+    }
+  }
+
+  /**
+   * Create a pool of <code>parallelism</code> threads.
+   * 
+   * @throws IllegalArgumentException if <code>parallelism</code> <= 0.
+   */
+  private static ForkJoinPool newPool(final int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("parallelism must be > 0");
+    }
+    return new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Relax columns from to to - 1 of the row at offset offI of rowI through
+   * the row at offset offK of rowK, which may be the same array. Every
+   * distance-only kernel in this class runs through here.
+   */
+  private static void relax(final double[] rowI, final int offI, final double[] rowK,
+      final int offK, final double viaK, final int from, final int to) {
+    for (int j = from; j < to; j++) {
+      rowI[offI + j] = Math.min(rowI[offI + j], viaK + rowK[offK + j]);
+    }
+  }
+
+  /**
+   * The tile updates of the blocked loop for one matrix. The phases of
+   * <code>blocked()</code> are the same for every element type, so each type
+   * supplies only these two updates.
+   */
+  interface TileKernel {
+
+    /**
+     * Relax rows iStart to iEnd - 1 and columns jStart to jEnd - 1 through k
+     * = kStart to kEnd - 1, with k outermost so that the tile may overlap the
+     * tiles it reads from.
+     */
+    void updateTile(int iStart, int iEnd, int jStart, int jEnd, int kStart, int kEnd);
+
+    /**
+     * Relax a tile that shares no rows or columns with the tiles it reads
+     * from, with i outermost so that each row of the tile stays in registers
+     * and cache for the whole k block.
+     */
+    void updateIndependentTile(int iStart, int iEnd, int jStart, int jEnd, int kStart,
+        int kEnd);
+  }
+
+  /**
+   * The tile updates for a <code>double</code> matrix.
+   */
+  private static final class DoubleTiles implements TileKernel {
+
+    private final double[] dist;
+
+    private final int n;
+
+    DoubleTiles(final double[] dist, final int n) {
+      this.dist = dist;
+      this.n = n;
+    }
+
+    @Override
+    public void updateTile(final int iStart, final int iEnd, final int jStart, final int jEnd,
+        final int kStart, final int kEnd) {
+      for (int k = kStart; k < kEnd; k++) {
+        final int rowK = k * n;
+        for (int i = iStart; i < iEnd; i++) {
+          final int rowI = i * n;
+          final double viaK = dist[rowI + k];
+          if (viaK == Double.POSITIVE_INFINITY) {
+            continue;
+          }
+          relax(dist, rowI, dist, rowK, viaK, jStart, jEnd);
+        }
+      }
+    }
+
+    @Override
+    public void updateIndependentTile(final int iStart, final int iEnd, final int jStart,
+        final int jEnd, final int kStart, final int kEnd) {
+      for (int i = iStart; i < iEnd; i++) {
+        final int rowI = i * n;
+        for (int k = kStart; k < kEnd; k++) {
+          final double viaK = dist[rowI + k];
+          if (viaK == Double.POSITIVE_INFINITY) {
+            continue;
+          }
+          relax(dist, rowI, dist, k * n, viaK, jStart, jEnd);
+        }
+      }
+    }
+  }
+
+  /**
+   * Updates the tiles of blocks from to to - 1 for one block of k values:
+   * in phase 2 the row and column tiles of each block, in phase 3 every tile
+   * in each block of rows. Ranges of more than one block are split in two.
+   */
+  private static final class BlockTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TileKernel tiles;
+
+    private final int n, tile, kb, from, to;
+
+    private final boolean phase3;
+
+    BlockTask(final TileKernel tiles, final int n, final int tile, final int kb,
+        final boolean phase3, final int from, final int to) {
+      this.tiles = tiles;
+      this.n = n;
+      this.tile = tile;
+      this.kb = kb;
+      this.phase3 = phase3;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        final int mid = (from + to) >>> 1;
+        invokeAll(new BlockTask(tiles, n, tile, kb, phase3, from, mid),
+                  new BlockTask(tiles, n, tile, kb, phase3, mid, to));
+        return;
+      }
+      final int b = from * tile;
+      if (b == kb) {
+        return; // the diagonal tile, or its row and column
+      }
+      final int kEnd = Math.min(kb + tile, n);
+      final int end = Math.min(b + tile, n);
+      if (!phase3) {
+        tiles.updateTile(kb, kEnd, b, end, kb, kEnd);
+        tiles.updateTile(b, end, kb, kEnd, kb, kEnd);
+        return;
+      }
+      for (int jb = 0; jb < n; jb += tile) {
+        if (jb != kb) {
+          tiles.updateIndependentTile(b, end, jb, Math.min(jb + tile, n), kb, kEnd);
+        }
+      }
+    }
+  }
+
+  /**
+   * Relaxes rows from to to - 1 of a square matrix through vertex k, splitting
+   * the range in two until it is no more than grain rows.
+   */
+  private static final class RowTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double[][] paths;
+
+    private final int[][] next_hops;
+
+    private final int k, from, to, grain;
+
+    RowTask(final double[][] paths, final int[][] next_hops, final int k, final int from,
+        final int to, final int grain) {
+      this.paths = paths;
+      this.next_hops = next_hops;
+      this.k = k;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > grain) {
+        final int mid = (from + to) >>> 1;
+        invokeAll(new RowTask(paths, next_hops, k, from, mid, grain),
+                  new RowTask(paths, next_hops, k, mid, to, grain));
+        return;
+      }
+      relaxRows(paths, next_hops, k, from, to);
+    }
+  }
+
+  /**
+   * Relax rows from to to - 1 of paths through vertex k, updating next_hops
+   * if it is not <code>null</code>. Without next_hops each row runs through
+   * <code>relax()</code>; with them the distance and the hop are both set
+   * from the same comparison.
+   */
+  private static void relaxRows(final double[][] paths, final int[][] next_hops, final int k,
+      final int from, final int to) {
+    final double[] row_k = paths[k];
+    for (int i = from; i < to; i++) {
+      final double[] row_i = paths[i];
+      final double via_k = row_i[k];
+      if (via_k == Double.POSITIVE_INFINITY) {
+        continue; // no path from i to k to extend
+      }
+      if (next_hops == null) {
+        relax(row_i, 0, row_k, 0, via_k, 0, row_i.length);
+        continue;
+      }
+      // row_k[k] is 0, so next_i[k] does not change while this row is relaxed
+      final int[] next_i = next_hops[i];
+      final int hop = next_i[k];
+      for (int j = 0; j < row_i.length; j++) {
+        final double through = via_k + row_k[j];
+        final boolean shorter = through < row_i[j];
+        row_i[j] = shorter ? through : row_i[j];
+        next_i[j] = shorter ? hop : next_i[j];
+      }
+    }
+  }
+
+  /**
+   * Check that dist holds an n by n matrix.
+   * 
+   * @throws IllegalArgumentException if it does not.
+   */
+  private static void checkMatrix(final double[] dist, final int n) {
+    if (dist == null || n < 0 || dist.length != (long) n * n) {
+      throw new IllegalArgumentException("matrix must be n by n");
+    }
+  }
+}
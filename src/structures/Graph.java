@@ -98,4 +98,13 @@ public interface Graph<T> {
    * @return a copy of the vertex array.
    */
   Vertex<T>[] getVertices();
+
+  /**
+   * Determine if every edge of this graph goes both ways, so that adding,
+   * reweighting or removing the edge from v1 to v2 does the same to the edge
+   * from v2 to v1.
+   * 
+   * @return boolean <code>true</code> if this graph is undirected.
+   */
+  boolean isUndirected();
 }
@@ -0,0 +1,100 @@
+
+package structures;
+
+/**
+ * Estimates the cost between two vertices as the great-circle distance
+ * between their locations, by the haversine formula. When edge weights are
+ * road distances in the same unit, no edge is shorter than the great-circle
+ * distance between its ends, so the estimate is consistent.
+ * 
+ * Locations are copied from the vertices when the heuristic is created. A
+ * vertex with no location, or a slot added later, is estimated at 0, which
+ * is always safe.
+ */
+public class GreatCircleHeuristic implements Heuristic {
+
+  /**
+   * The mean radius of the earth in statute miles.
+   */
+  public static final double EARTH_RADIUS_MILES = 3958.8;
+
+  /**
+   * The mean radius of the earth in kilometres.
+   */
+  public static final double EARTH_RADIUS_KM = 6371.0;
+
+  /**
+   * The radius of the earth in the unit of the edge weights.
+   */
+  private final double radius;
+
+  /**
+   * latitudes[s] and longitudes[s] are the location of slot s in radians,
+   * or NaN if it has none; cosines[s] is the cosine of latitudes[s].
+   */
+  private final double[] latitudes;
+
+  private final double[] longitudes;
+
+  private final double[] cosines;
+
+  /**
+   * Constructor. Create a heuristic for <code>graph</code> whose edge weights
+   * are in miles.
+   * 
+   * @param graph The graph whose vertex locations to use; must not be
+   *          <code>null</code>.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public GreatCircleHeuristic(final IndexedGraph<?> graph) {
+    this(graph, EARTH_RADIUS_MILES);
+  }
+
+  /**
+   * Constructor. Create a heuristic for <code>graph</code> whose edge weights
+   * are in the unit of <code>radius</code>.
+   * 
+   * @param graph The graph whose vertex locations to use; must not be
+   *          <code>null</code>.
+   * @param radius The radius of the earth in the unit of the edge weights;
+   *          must be > 0.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code> or <code>radius</code> <= 0.
+   */
+  public GreatCircleHeuristic(final IndexedGraph<?> graph, final double radius) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    if (!(radius > 0)) {
+      throw new IllegalArgumentException("radius must be > 0");
+    }
+    this.radius = radius;
+    final int capacity = graph.getCapacity();
+    this.latitudes = new double[capacity];
+    this.longitudes = new double[capacity];
+    this.cosines = new double[capacity];
+    for (int slot = 0; slot < capacity; slot++) {
+      final Vertex<?> v = graph.vertexAt(slot);
+      if (v != null && v.hasLocation()) {
+        latitudes[slot] = Math.toRadians(v.getLatitude());
+        longitudes[slot] = Math.toRadians(v.getLongitude());
+        cosines[slot] = Math.cos(latitudes[slot]);
+      } else {
+        latitudes[slot] = Double.NaN;
+      }
+    }
+  }
+
+  @Override
+  public double estimate(final int slot, final int dest) {
+    if (slot >= latitudes.length || dest >= latitudes.length
+        || Double.isNaN(latitudes[slot]) || Double.isNaN(latitudes[dest])) {
+      return 0.0;
+    }
+    final double sinLat = Math.sin((latitudes[dest] - latitudes[slot]) / 2);
+    final double sinLon = Math.sin((longitudes[dest] - longitudes[slot]) / 2);
+    final double a = sinLat * sinLat + cosines[slot] * cosines[dest] * sinLon * sinLon;
+    return 2 * radius * Math.asin(Math.min(1.0, Math.sqrt(a)));
+  }
+}
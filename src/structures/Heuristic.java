@@ -0,0 +1,26 @@
+
+package structures;
+
+/**
+ * An estimate of the cost of a minimal path between two slots of a graph,
+ * used by <code>AStarEngine</code> to search toward the destination first.
+ * 
+ * An estimate must never exceed the true cost (it is admissible) and must be
+ * consistent: for every edge from u to v, <code>estimate(u, d)</code> is at
+ * most the weight of the edge plus <code>estimate(v, d)</code>. Then A*
+ * settles each slot at its final distance and returns the same costs as
+ * Dijkstra's algorithm. An estimate of 0 everywhere is consistent and makes
+ * A* plain Dijkstra.
+ */
+public interface Heuristic {
+
+  /**
+   * Estimate the cost of a minimal path from <code>slot</code> to
+   * <code>dest</code>.
+   * 
+   * @param slot The slot the path starts at.
+   * @param dest The slot the path ends at.
+   * @return double A lower bound on the cost of the path.
+   */
+  double estimate(int slot, int dest);
+}
@@ -0,0 +1,70 @@
+
+package structures;
+
+/**
+ * A graph whose vertices occupy numbered slots. Algorithms can look a vertex up
+ * once with <code>indexOf()</code> and then traverse the graph by slot number,
+ * without allocating a neighbor list for every vertex they visit. Slots are in
+ * the range 0 to <code>getCapacity() - 1</code>; a slot may be free, in which
+ * case <code>vertexAt()</code> returns <code>null</code>.
+ */
+public interface IndexedGraph<T> extends Graph<T> {
+
+  /**
+   * Get the number of vertex slots in this graph. Arrays indexed by slot must
+   * have at least this many elements.
+   * 
+   * @return int One more than the largest slot number.
+   */
+  int getCapacity();
+
+  /**
+   * Get the slot that holds <code>v</code>.
+   * 
+   * @param v The vertex to look up; must not be <code>null</code>.
+   * @return int The slot holding <code>v</code>, or -1 if <code>v</code> is not
+   *         in this graph.
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code>.
+   */
+  int indexOf(Vertex<T> v);
+
+  /**
+   * Get the vertex stored in <code>slot</code>.
+   * 
+   * @param slot A slot number in the range 0 to <code>getCapacity() - 1</code>.
+   * @return Vertex The vertex in that slot, or <code>null</code> if the slot is
+   *         free.
+   * @throws IndexOutOfBoundsException if <code>slot</code> is out of range.
+   */
+  Vertex<T> vertexAt(int slot);
+
+  /**
+   * Determine if there is an edge from the vertex in slot <code>from</code> to
+   * the vertex in slot <code>to</code>.
+   * 
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   * @return boolean <code>true</code> if the edge exists.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  boolean hasEdge(int from, int to);
+
+  /**
+   * Get the number of edges leaving the vertex in <code>slot</code>.
+   * 
+   * @param slot The slot of the vertex.
+   * @return int The out-degree of the vertex.
+   * @throws IndexOutOfBoundsException if <code>slot</code> is out of range.
+   */
+  int degree(int slot);
+
+  /**
+   * Pass the slot of every neighbor of the vertex in <code>slot</code> to
+   * <code>visitor</code>, in increasing slot order where the graph allows it.
+   * 
+   * @param slot The slot of the vertex whose neighbors we want.
+   * @param visitor The callback to receive the neighbors.
+   * @throws IndexOutOfBoundsException if <code>slot</code> is out of range.
+   */
+  void forEachNeighbor(int slot, NeighborVisitor visitor);
+}
@@ -0,0 +1,254 @@
+
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of the ints 0 to <code>capacity - 1</code>, each ordered by
+ * a primitive <code>double</code> key. Each int can be in the heap at most
+ * once, and the heap knows where each one is, so the key of an element can be
+ * lowered in place with <code>decreaseKey()</code> instead of adding a second
+ * copy. Nothing is boxed and nothing is allocated after construction.
+ * 
+ * Shortest path searches use the ints as vertex slots and the keys as
+ * tentative distances.
+ */
+public class IndexedMinHeap {
+
+  private static final int TOP = 0;
+
+  private static final int ABSENT = -1;
+
+  private int size;
+
+  // left child is in position 2 * i + 1
+  // right child is in position 2 * i + 2
+  // parent is in position (i - 1) / 2
+  private int[] heap;
+
+  /**
+   * keys[i] is the key of heap[i].
+   */
+  private double[] keys;
+
+  /**
+   * position[e] is the position of element e in heap, or ABSENT.
+   */
+  private int[] position;
+
+  /**
+   * Construct an empty heap that can hold the ints 0 to
+   * <code>capacity - 1</code>.
+   * 
+   * @param capacity One more than the largest element; must be >= 0.
+   * @throws IllegalArgumentException if <code>capacity</code> < 0.
+   */
+  public IndexedMinHeap(final int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must be >= 0");
+    }
+    heap = new int[capacity];
+    keys = new double[capacity];
+    position = new int[capacity];
+    Arrays.fill(position, ABSENT);
+  }
+
+  /**
+   * Get one more than the largest element this heap can hold.
+   * 
+   * @return int The capacity of this heap.
+   */
+  public int getCapacity() {
+    return position.length;
+  }
+
+  /**
+   * Grow this heap, if necessary, so that it can hold the ints 0 to
+   * <code>minCapacity - 1</code>.
+   * 
+   * @param minCapacity The desired minimum capacity.
+   */
+  public void ensureCapacity(final int minCapacity) {
+    if (minCapacity > position.length) {
+      final int oldCapacity = position.length;
+      heap = Arrays.copyOf(heap, minCapacity);
+      keys = Arrays.copyOf(keys, minCapacity);
+      position = Arrays.copyOf(position, minCapacity);
+      Arrays.fill(position, oldCapacity, minCapacity, ABSENT);
+    }
+  }
+
+  /**
+   * @return int The number of elements in this heap.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return boolean <code>true</code> if this heap is empty.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Determine if <code>element</code> is in this heap.
+   * 
+   * @param element An int in the range 0 to <code>getCapacity() - 1</code>.
+   * @return boolean <code>true</code> if <code>element</code> is in the heap.
+   */
+  public boolean contains(final int element) {
+    return position[element] != ABSENT;
+  }
+
+  /**
+   * Get the key of <code>element</code>.
+   * 
+   * @param element An element of this heap.
+   * @return double The key of <code>element</code>.
+   * @throws IllegalArgumentException if <code>element</code> is not in this
+   *           heap.
+   */
+  public double keyOf(final int element) {
+    final int at = position[element];
+    if (at == ABSENT) {
+      throw new IllegalArgumentException("element not in heap");
+    }
+    return keys[at];
+  }
+
+  /**
+   * Insert <code>element</code> with key <code>key</code>.
+   * 
+   * @param element An int in the range 0 to <code>getCapacity() - 1</code>
+   *          that is not in this heap.
+   * @param key The key of <code>element</code>.
+   * @throws IllegalArgumentException if <code>element</code> is already in
+   *           this heap.
+   */
+  public void insert(final int element, final double key) {
+    if (position[element] != ABSENT) {
+      throw new IllegalArgumentException("element already in heap");
+    }
+    heap[size] = element;
+    keys[size] = key;
+    position[element] = size;
+    siftUp(size++);
+  }
+
+  /**
+   * Lower the key of <code>element</code> to <code>key</code>.
+   * 
+   * @param element An element of this heap.
+   * @param key The new key; must not be greater than the current key.
+   * @throws IllegalArgumentException if <code>element</code> is not in this
+   *           heap or <code>key</code> is greater than its current key.
+   */
+  public void decreaseKey(final int element, final double key) {
+    final int at = position[element];
+    if (at == ABSENT) {
+      throw new IllegalArgumentException("element not in heap");
+    }
+    if (key > keys[at]) {
+      throw new IllegalArgumentException("key must not increase");
+    }
+    keys[at] = key;
+    siftUp(at);
+  }
+
+  /**
+   * Get the smallest key in this heap without removing its element.
+   * 
+   * @return double The key of the top element.
+   * @throws EmptyHeapException if the heap is empty.
+   */
+  public double topKey() {
+    if (size == 0) {
+      throw new EmptyHeapException();
+    }
+    return keys[TOP];
+  }
+
+  /**
+   * Remove and return the element with the smallest key.
+   * 
+   * @return int The top element of the heap.
+   * @throws EmptyHeapException if the heap is empty.
+   */
+  public int top() {
+    if (size == 0) {
+      throw new EmptyHeapException();
+    }
+    final int oldTop = heap[TOP];
+    position[oldTop] = ABSENT;
+    size--;
+    if (size > 0) {
+      heap[TOP] = heap[size];
+      keys[TOP] = keys[size];
+      position[heap[TOP]] = TOP;
+      siftDown(TOP);
+    }
+    return oldTop;
+  }
+
+  /**
+   * Remove every element. Runs in O(size()) time.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      position[heap[i]] = ABSENT;
+    }
+    size = 0;
+  }
+
+  /**
+   * Move the element at position child up until its parent's key is not
+   * greater.
+   */
+  private void siftUp(int child) {
+    final int element = heap[child];
+    final double key = keys[child];
+    while (child != TOP) {
+      final int parent = (child - 1) >>> 1;
+      if (keys[parent] <= key) {
+        break;
+      }
+      heap[child] = heap[parent];
+      keys[child] = keys[parent];
+      position[heap[child]] = child;
+      child = parent;
+    }
+    heap[child] = element;
+    keys[child] = key;
+    position[element] = child;
+  }
+
+  /**
+   * Move the element at position parent down until neither child has a
+   * smaller key.
+   */
+  private void siftDown(int parent) {
+    final int element = heap[parent];
+    final double key = keys[parent];
+    while (true) {
+      int child = 2 * parent + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && keys[child + 1] < keys[child]) {
+        child++;
+      }
+      if (keys[child] >= key) {
+        break;
+      }
+      heap[parent] = heap[child];
+      keys[parent] = keys[child];
+      position[heap[parent]] = parent;
+      parent = child;
+    }
+    heap[parent] = element;
+    keys[parent] = key;
+    position[element] = parent;
+  }
+}
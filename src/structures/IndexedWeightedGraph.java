@@ -0,0 +1,30 @@
+
+package structures;
+
+/**
+ * A weighted graph whose vertices occupy numbered slots. See
+ * <code>IndexedGraph</code>.
+ */
+public interface IndexedWeightedGraph<T> extends IndexedGraph<T>, WeightedGraph<T> {
+
+  /**
+   * Get the weight of the edge from the vertex in slot <code>from</code> to the
+   * vertex in slot <code>to</code>.
+   * 
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   * @return double The weight of the edge, or 0.0 if there is no such edge.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  double getEdgeWeight(int from, int to);
+
+  /**
+   * Pass the slot of every neighbor of the vertex in <code>slot</code>, and the
+   * weight of the edge to it, to <code>visitor</code>.
+   * 
+   * @param slot The slot of the vertex whose neighbors we want.
+   * @param visitor The callback to receive the neighbors.
+   * @throws IndexOutOfBoundsException if <code>slot</code> is out of range.
+   */
+  void forEachNeighbor(int slot, WeightedNeighborVisitor visitor);
+}
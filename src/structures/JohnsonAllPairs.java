@@ -0,0 +1,203 @@
+
+package structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * All-pairs shortest paths by Johnson's algorithm: one run of Dijkstra's
+ * algorithm from every vertex over a compressed sparse row copy of the graph,
+ * in O(V E log V) time. On a sparse graph, where E is a small multiple of V,
+ * this does far less work than the O(V^3) Floyd-Warshall algorithm.
+ * 
+ * Dijkstra's algorithm needs non-negative weights. Johnson's algorithm
+ * handles negative weights by first giving each vertex u a potential h(u)
+ * such that every reweighted edge <code>w(u, v) + h(u) - h(v)</code> is
+ * non-negative, then undoing the reweighting on each distance found.
+ * <code>potentials()</code> is the hook for that step; this class supports
+ * only non-negative weights and uses no reweighting, but a subclass may
+ * override it with, for example, Bellman-Ford from a virtual source.
+ * 
+ * The searches may run on several threads; see
+ * <code>JohnsonAllPairs(int)</code>.
+ */
+public class JohnsonAllPairs<T> implements AllPairsShortestPaths<T> {
+
+  /**
+   * The number of threads to use.
+   */
+  private final int parallelism;
+
+  /**
+   * Constructor. Create a provider that runs on the calling thread.
+   */
+  public JohnsonAllPairs() {
+    this(1);
+  }
+
+  /**
+   * Constructor. Create a provider that runs its searches on
+   * <code>parallelism</code> threads. The searches from different sources are
+   * independent, so each thread keeps one <code>DijkstraEngine</code>, whose
+   * arrays and heap are reused for every source it takes, and writes its rows
+   * straight into the shared result. Sources are handed out one at a time, so
+   * threads that get cheap searches take more of them.
+   * 
+   * @param parallelism The number of threads to use; must be at least 1.
+   * @throws IllegalArgumentException if <code>parallelism</code> < 1.
+   */
+  public JohnsonAllPairs(final int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1");
+    }
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public double[][] shortestPaths(final IndexedWeightedGraph<T> graph, final int[][] next_hops) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    // row i of the copy is the i-th vertex returned by getVertices()
+    final CompressedSparseRowGraph<T> csr = new CompressedSparseRowGraph<T>(graph);
+    final int n = csr.getCapacity();
+    if (next_hops != null) {
+      FloydWarshall.checkSquare(next_hops, n);
+    }
+    final double[] potentials = potentials(csr);
+    final IndexedWeightedGraph<T> searched =
+        potentials == null ? csr : csr.reweighted(potentials);
+    final double[][] paths = new double[n][n];
+
+    if (parallelism == 1 || n < 2) {
+      final DijkstraEngine<T> engine = new DijkstraEngine<T>(searched);
+      final int[] stack = new int[n];
+      for (int source = 0; source < n; source++) {
+        solve(engine, source, potentials, paths, next_hops, stack);
+      }
+      return paths;
+    }
+
+    final AtomicInteger nextSource = new AtomicInteger();
+    final List<RecursiveAction> workers = new ArrayList<RecursiveAction>();
+    for (int i = 0; i < Math.min(parallelism, n); i++) {
+      workers.add(new RecursiveAction() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+          final DijkstraEngine<T> engine = new DijkstraEngine<T>(searched);
+          final int[] stack = new int[n];
+          for (int source = nextSource.getAndIncrement(); source < n;
+               source = nextSource.getAndIncrement()) {
+            solve(engine, source, potentials, paths, next_hops, stack);
+          }
+        }
+      });
+    }
+    final ForkJoinPool pool = new ForkJoinPool(workers.size());
+    try {
+      for (RecursiveAction worker : workers) {
+        pool.execute(worker);
+      }
+      for (RecursiveAction worker : workers) {
+        worker.join();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    return paths;
+  }
+
+  /**
+   * Search from <code>source</code> and fill its row of the results.
+   * 
+   * @param engine The engine to search with.
+   * @param source The slot to search from.
+   * @param potentials The potentials the searched graph was reweighted by,
+   *          or <code>null</code>.
+   * @param paths The distance matrix.
+   * @param next_hops The next-hop matrix, or <code>null</code>.
+   * @param stack Scratch space of one entry per slot.
+   */
+  private static void solve(final DijkstraEngine<?> engine, final int source,
+      final double[] potentials, final double[][] paths, final int[][] next_hops,
+      final int[] stack) {
+    engine.search(source, -1);
+    final double[] row = paths[source];
+    System.arraycopy(engine.dist, 0, row, 0, row.length);
+    if (potentials != null) {
+      for (int dest = 0; dest < row.length; dest++) {
+        row[dest] += potentials[dest] - potentials[source];
+      }
+    }
+    if (next_hops != null) {
+      firstHops(source, engine.dist, engine.pred, next_hops[source], stack);
+    }
+  }
+
+  /**
+   * Find a potential for each vertex of <code>graph</code> that makes every
+   * reweighted edge non-negative. This implementation checks that every
+   * weight is already non-negative and asks for no reweighting.
+   * 
+   * @param graph The graph to process.
+   * @return double[] One potential per slot, or <code>null</code> to use the
+   *         weights as they are.
+   * @throws IllegalArgumentException if <code>graph</code> has a negative
+   *           edge weight.
+   */
+  protected double[] potentials(final CompressedSparseRowGraph<T> graph) {
+    final WeightedNeighborVisitor check = new WeightedNeighborVisitor() {
+      @Override
+      public void visit(final int neighbor, final double weight) {
+        if (weight < 0) {
+          throw new IllegalArgumentException("negative edge weight: " + weight);
+        }
+      }
+    };
+    for (int slot = 0; slot < graph.getCapacity(); slot++) {
+      graph.forEachNeighbor(slot, check);
+    }
+    return null;
+  }
+
+  /**
+   * Fill one row of the next-hop matrix from the predecessors of a search.
+   * The first hop to a vertex is the first hop to its predecessor, so each
+   * walk up the tree stops at the first vertex whose hop is known and every
+   * vertex is walked over once.
+   * 
+   * @param source The slot the search started at.
+   * @param dist The distances found by the search.
+   * @param pred The predecessors found by the search.
+   * @param next_row The row to fill.
+   * @param stack Scratch space of one entry per slot.
+   */
+  static void firstHops(final int source, final double[] dist, final int[] pred,
+      final int[] next_row, final int[] stack) {
+    Arrays.fill(next_row, -1);
+    next_row[source] = source;
+    for (int dest = 0; dest < next_row.length; dest++) {
+      if (next_row[dest] != -1 || dist[dest] == Double.POSITIVE_INFINITY) {
+        continue;
+      }
+      int top = 0;
+      int at = dest;
+      while (at != source && next_row[at] == -1) {
+        stack[top++] = at;
+        at = pred[at];
+      }
+      // the last vertex pushed is either next to the source or next to a
+      // vertex whose first hop is known
+      final int hop = at == source ? stack[top - 1] : next_row[at];
+      while (top > 0) {
+        next_row[stack[--top]] = hop;
+      }
+    }
+  }
+}
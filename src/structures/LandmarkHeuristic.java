@@ -0,0 +1,167 @@
+
+package structures;
+
+/**
+ * Estimates the cost between two slots from precomputed distances to and from
+ * a few landmark vertices (ALT: A*, landmarks and the triangle inequality).
+ * For a landmark L and a path from v to t, <code>d(L, t) - d(L, v)</code> and
+ * <code>d(v, L) - d(t, L)</code> are both lower bounds on
+ * <code>d(v, t)</code>; the estimate is the largest such bound over all
+ * landmarks. Each bound is consistent, so the estimate is too, and unlike
+ * <code>GreatCircleHeuristic</code> it needs no vertex locations.
+ * 
+ * Landmarks are chosen by farthest-point selection: each new landmark is the
+ * vertex farthest from the ones already chosen, which spreads them around the
+ * edge of the graph where their bounds are tightest. Choosing them costs one
+ * run of Dijkstra's algorithm per landmark, or two for a directed graph,
+ * which also needs the distances to each landmark.
+ * 
+ * Distances are stored slot by slot in flat <code>double</code> arrays, k
+ * values per slot, so an estimate reads two short runs of memory. The tables
+ * take <code>k * capacity * 8</code> bytes for an undirected graph and twice
+ * that for a directed one; see <code>getMemoryBytes()</code>. They are copied
+ * when the heuristic is created; a slot added later is estimated at 0.
+ */
+public class LandmarkHeuristic implements Heuristic {
+
+  /**
+   * The slots of the landmarks, in the order they were chosen.
+   */
+  private final int[] landmarks;
+
+  /**
+   * fromLandmark[s * k + i] is the distance from landmark i to slot s, and
+   * toLandmark[s * k + i] the distance from slot s to landmark i. For an
+   * undirected graph they are the same array.
+   */
+  private final double[] fromLandmark;
+
+  private final double[] toLandmark;
+
+  /**
+   * Constructor. Choose <code>k</code> landmarks of <code>graph</code> and
+   * compute their distances.
+   * 
+   * @param graph The graph to estimate costs in; must not be
+   *          <code>null</code>.
+   * @param k The number of landmarks; must be between 1 and the number of
+   *          vertices.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code> or <code>k</code> is out of range.
+   */
+  public <T> LandmarkHeuristic(final IndexedWeightedGraph<T> graph, final int k) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    if (k < 1 || k > graph.getNumberOfVertices()) {
+      throw new IllegalArgumentException("k must be between 1 and the number of vertices");
+    }
+    final int capacity = graph.getCapacity();
+    this.landmarks = new int[k];
+    this.fromLandmark = new double[k * capacity];
+
+    final DijkstraEngine<T> engine = new DijkstraEngine<T>(graph);
+    DijkstraEngine<T> reverse = null;
+    CompressedSparseRowGraph<T> reversed = null;
+    if (graph.isUndirected()) {
+      this.toLandmark = fromLandmark;
+    } else {
+      this.toLandmark = new double[k * capacity];
+      reversed = new CompressedSparseRowGraph<T>(graph).reversed();
+      reverse = new DijkstraEngine<T>(reversed);
+    }
+
+    // nearest[s] is the distance to slot s from the closest landmark so far;
+    // the first landmark is the vertex farthest from an arbitrary start
+    final double[] nearest = new double[capacity];
+    int next = 0;
+    while (graph.vertexAt(next) == null) {
+      next++;
+    }
+    ShortestPathTree<T> tree = engine.shortestPathTree(graph.vertexAt(next));
+    for (int slot = 0; slot < capacity; slot++) {
+      nearest[slot] = graph.vertexAt(slot) == null ? -1 : tree.getDistance(slot);
+    }
+    for (int i = 0; i < k; i++) {
+      next = farthest(nearest);
+      landmarks[i] = next;
+      final Vertex<T> landmark = graph.vertexAt(next);
+      tree = engine.shortestPathTree(landmark);
+      for (int slot = 0; slot < capacity; slot++) {
+        fromLandmark[slot * k + i] = tree.getDistance(slot);
+        if (nearest[slot] >= 0) {
+          nearest[slot] = i == 0 ? tree.getDistance(slot)
+                                 : Math.min(nearest[slot], tree.getDistance(slot));
+        }
+      }
+      if (reverse != null) {
+        tree = reverse.shortestPathTree(landmark);
+        for (int slot = 0; slot < capacity; slot++) {
+          final Vertex<T> v = graph.vertexAt(slot);
+          toLandmark[slot * k + i] = v == null ? Double.POSITIVE_INFINITY
+                                               : tree.getDistance(reversed.indexOf(v));
+        }
+      }
+    }
+  }
+
+  @Override
+  public double estimate(final int slot, final int dest) {
+    final int k = landmarks.length;
+    if ((slot + 1) * k > fromLandmark.length || (dest + 1) * k > fromLandmark.length) {
+      return 0.0;
+    }
+    // forward, d(L, dest) - d(L, slot), is +infinity when L reaches slot but
+    // not dest, and backward, d(slot, L) - d(dest, L), is +infinity when
+    // dest reaches L but slot does not; either proves slot cannot reach
+    // dest. The opposite cases give -infinity, and a landmark cut off from
+    // both gives NaN; neither compares greater, so both are ignored
+    double best = 0.0;
+    for (int i = 0; i < k; i++) {
+      final double forward = fromLandmark[dest * k + i] - fromLandmark[slot * k + i];
+      if (forward > best) {
+        best = forward;
+      }
+      final double backward = toLandmark[slot * k + i] - toLandmark[dest * k + i];
+      if (backward > best) {
+        best = backward;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Get the slots of the landmarks, in the order they were chosen.
+   * 
+   * @return int[] A copy of the landmark slots.
+   */
+  public int[] getLandmarks() {
+    return landmarks.clone();
+  }
+
+  /**
+   * Get the size of the distance tables: 8 bytes per landmark per slot, and
+   * twice that for a directed graph.
+   * 
+   * @return long The number of bytes in the tables.
+   */
+  public long getMemoryBytes() {
+    final long bytes = 8L * fromLandmark.length;
+    return toLandmark == fromLandmark ? bytes : 2 * bytes;
+  }
+
+  /**
+   * Find the slot farthest from every landmark. An unreachable slot counts as
+   * farthest, so each part of a disconnected graph gets a landmark; empty
+   * slots are marked -1 and chosen slots are at distance 0.
+   */
+  private static int farthest(final double[] nearest) {
+    int best = -1;
+    for (int slot = 0; slot < nearest.length; slot++) {
+      if (nearest[slot] >= 0 && (best == -1 || nearest[slot] > nearest[best])) {
+        best = slot;
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,17 @@
+
+package structures;
+
+/**
+ * A callback that receives the neighbors of a vertex, one slot at a time, from
+ * <code>IndexedGraph.forEachNeighbor()</code>. Reusing one visitor for many
+ * vertices lets a traversal run without allocating a list per vertex.
+ */
+public interface NeighborVisitor {
+
+  /**
+   * Called once for each neighbor of the vertex being visited.
+   * 
+   * @param slot The slot of the neighbor.
+   */
+  void visit(int slot);
+}
@@ -0,0 +1,137 @@
+
+package structures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The minimal paths from one source vertex to every vertex of a graph, as
+ * found by a single run of Dijkstra's algorithm. Distances and predecessors
+ * are kept in primitive arrays indexed by slot; the route to a destination is
+ * rebuilt by following predecessors back to the source, in O(path length)
+ * time.
+ * 
+ * A tree describes the graph as it was when the tree was built, and its
+ * slots are those of that graph.
+ */
+public class ShortestPathTree<T> {
+
+  /**
+   * The graph the tree was built from; used to map between vertices and
+   * slots.
+   */
+  private final IndexedGraph<T> graph;
+
+  /**
+   * The slot of the source vertex.
+   */
+  private final int source;
+
+  /**
+   * dist[s] is the cost of a minimal path from the source to slot s, or
+   * <code>Double.POSITIVE_INFINITY</code> if there is none.
+   */
+  private final double[] dist;
+
+  /**
+   * pred[s] is the slot before s on a minimal path from the source.
+   */
+  private final int[] pred;
+
+  /**
+   * Create a tree from the arrays of a finished search. The arrays are not
+   * copied.
+   */
+  ShortestPathTree(final IndexedGraph<T> graph, final int source, final double[] dist,
+      final int[] pred) {
+    this.graph = graph;
+    this.source = source;
+    this.dist = dist;
+    this.pred = pred;
+  }
+
+  /**
+   * Get the vertex every path in this tree starts at.
+   * 
+   * @return Vertex The source vertex.
+   */
+  public Vertex<T> getSource() {
+    return graph.vertexAt(source);
+  }
+
+  /**
+   * Get the cost of a minimal path from the source to <code>dest</code>.
+   * 
+   * @param dest The last vertex in the path; must not be <code>null</code>.
+   * @return double The cost of the path or -1 if there is none.
+   * @throws IllegalArgumentException if <code>dest</code> is
+   *           <code>null</code>.
+   */
+  public double getDistance(final Vertex<T> dest) {
+    final int slot = graph.indexOf(dest);
+    if (slot == -1 || slot >= dist.length || dist[slot] == Double.POSITIVE_INFINITY) {
+      return -1;
+    }
+    return dist[slot];
+  }
+
+  /**
+   * Get the cost of a minimal path from the source to slot <code>dest</code>.
+   * 
+   * @param dest The slot of the last vertex in the path.
+   * @return double The cost of the path, or
+   *         <code>Double.POSITIVE_INFINITY</code> if there is none.
+   * @throws IndexOutOfBoundsException if <code>dest</code> is out of range.
+   */
+  public double getDistance(final int dest) {
+    return dist[dest];
+  }
+
+  /**
+   * Get the slot before slot <code>dest</code> on a minimal path from the
+   * source.
+   * 
+   * @param dest The slot of a vertex reachable from the source.
+   * @return int The previous slot, or -1 if <code>dest</code> is the source or
+   *         cannot be reached.
+   * @throws IndexOutOfBoundsException if <code>dest</code> is out of range.
+   */
+  public int getPredecessor(final int dest) {
+    return dist[dest] == Double.POSITIVE_INFINITY ? -1 : pred[dest];
+  }
+
+  /**
+   * Determine if there is a path from the source to <code>dest</code>.
+   * 
+   * @param dest The vertex to check; must not be <code>null</code>.
+   * @return boolean <code>true</code> if <code>dest</code> can be reached.
+   * @throws IllegalArgumentException if <code>dest</code> is
+   *           <code>null</code>.
+   */
+  public boolean hasPathTo(final Vertex<T> dest) {
+    return getDistance(dest) != -1;
+  }
+
+  /**
+   * Get the vertices on a minimal path from the source to <code>dest</code>.
+   * 
+   * @param dest The last vertex in the path; must not be <code>null</code>.
+   * @return List The vertices on the path, starting with the source and ending
+   *         with <code>dest</code>. This list will be empty if there is no
+   *         path.
+   * @throws IllegalArgumentException if <code>dest</code> is
+   *           <code>null</code>.
+   */
+  public List<Vertex<T>> getPath(final Vertex<T> dest) {
+    final List<Vertex<T>> thepath = new ArrayList<Vertex<T>>();
+    if (!hasPathTo(dest)) {
+      return thepath; // no path, return empty list
+    }
+    for (int slot = graph.indexOf(dest); slot != -1; slot = pred[slot]) {
+      thepath.add(graph.vertexAt(slot));
+    }
+    Collections.reverse(thepath);
+    return thepath;
+  }
+}
@@ -0,0 +1,224 @@
+
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * A batch of edge edits against a <code>WeightedGraphSnapshot</code>. The base
+ * snapshot is never changed: the first edit of a row copies that row, and
+ * <code>build()</code> returns a new snapshot that shares every untouched row
+ * with the base. Publishing a batch of k edits therefore costs O(V) for the
+ * row tables plus the size of the k edited rows, not O(V^2).
+ * 
+ * An editor is used by one thread and may be built only once.
+ */
+public class SnapshotEditor<T> {
+
+  /**
+   * The snapshot these edits apply to.
+   */
+  private final WeightedGraphSnapshot<T> base;
+
+  /**
+   * The rows of the new version; starts as a copy of the base's row table.
+   */
+  private final int[][] targets;
+
+  /**
+   * The row weights of the new version.
+   */
+  private final double[][] weights;
+
+  /**
+   * copied[i] is <code>true</code> once row i belongs to this editor rather
+   * than to the base.
+   */
+  private final boolean[] copied;
+
+  /**
+   * The number of edges in the new version.
+   */
+  private int numberOfEdges;
+
+  /**
+   * <code>true</code> once build() has been called.
+   */
+  private boolean built;
+
+  /**
+   * Create an editor for <code>base</code>. Use
+   * <code>WeightedGraphSnapshot.edit()</code>.
+   */
+  SnapshotEditor(final WeightedGraphSnapshot<T> base) {
+    this.base = base;
+    this.targets = base.targets.clone();
+    this.weights = base.weights.clone();
+    this.copied = new boolean[targets.length];
+    this.numberOfEdges = base.numberOfEdges;
+  }
+
+  /**
+   * Get the snapshot these edits apply to.
+   * 
+   * @return WeightedGraphSnapshot The base snapshot.
+   */
+  public WeightedGraphSnapshot<T> getBase() {
+    return base;
+  }
+
+  /**
+   * Reset the weight of the existing edge from <code>v1</code> to
+   * <code>v2</code>; in an undirected snapshot the edge back is reset too.
+   * 
+   * @param v1 The source vertex; must be a vertex in the base snapshot.
+   * @param newWeight The weight of this edge; must be >= 0.
+   * @param v2 The destination vertex; must be a vertex in the base snapshot.
+   * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
+   *           <code>null</code> or are not in the snapshot, if the edge does
+   *           not exist, or if <code>newWeight</code> < 0.0.
+   * @throws IllegalStateException if this editor has been built.
+   */
+  public void setEdgeWeight(final Vertex<T> v1, final double newWeight, final Vertex<T> v2) {
+    checkWeight(newWeight);
+    final int from = base.getVerticesIndexFor(v1);
+    final int to = base.getVerticesIndexFor(v2);
+    checkNotBuilt();
+    if (Arrays.binarySearch(targets[from], to) < 0) {
+      throw new IllegalArgumentException("edge not found");
+    }
+    put(from, to, newWeight);
+    if (base.undirected) {
+      put(to, from, newWeight);
+    }
+  }
+
+  /**
+   * Add an edge from <code>v1</code> to <code>v2</code>; in an undirected
+   * snapshot the edge goes both ways.
+   * 
+   * @param v1 The source vertex; must be a vertex in the base snapshot.
+   * @param weight The weight of this edge; must be >= 0.
+   * @param v2 The destination vertex; must be a vertex in the base snapshot.
+   * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
+   *           <code>null</code> or are not in the snapshot, if the edge
+   *           already exists, or if <code>weight</code> < 0.0.
+   * @throws IllegalStateException if this editor has been built.
+   */
+  public void addEdge(final Vertex<T> v1, final double weight, final Vertex<T> v2) {
+    checkWeight(weight);
+    final int from = base.getVerticesIndexFor(v1);
+    final int to = base.getVerticesIndexFor(v2);
+    checkNotBuilt();
+    if (Arrays.binarySearch(targets[from], to) >= 0) {
+      throw new IllegalArgumentException("duplicate edge");
+    }
+    put(from, to, weight);
+    if (base.undirected) {
+      put(to, from, weight);
+    }
+    numberOfEdges++;
+  }
+
+  /**
+   * Remove the edge from <code>v1</code> to <code>v2</code>; in an undirected
+   * snapshot the edge back is removed too.
+   * 
+   * @param v1 The source vertex; must be a vertex in the base snapshot.
+   * @param v2 The destination vertex; must be a vertex in the base snapshot.
+   * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
+   *           <code>null</code> or are not in the snapshot, or if the edge does
+   *           not exist.
+   * @throws IllegalStateException if this editor has been built.
+   */
+  public void removeEdge(final Vertex<T> v1, final Vertex<T> v2) {
+    final int from = base.getVerticesIndexFor(v1);
+    final int to = base.getVerticesIndexFor(v2);
+    checkNotBuilt();
+    if (Arrays.binarySearch(targets[from], to) < 0) {
+      throw new IllegalArgumentException("edge not found");
+    }
+    delete(from, to);
+    if (base.undirected && from != to) {
+      delete(to, from);
+    }
+    numberOfEdges--;
+  }
+
+  /**
+   * Finish this batch. The editor cannot be used again, since the snapshot
+   * it returns owns the rows it copied.
+   * 
+   * @return WeightedGraphSnapshot The edited version, one newer than the base.
+   * @throws IllegalStateException if this editor has been built.
+   */
+  public WeightedGraphSnapshot<T> build() {
+    checkNotBuilt();
+    built = true;
+    return new WeightedGraphSnapshot<T>(base.vertices, base.indices, targets, weights,
+        base.undirected, numberOfEdges, base.version + 1);
+  }
+
+  /**
+   * Set the weight of the edge from slot from to slot to, inserting it into
+   * the sorted row if it is not there.
+   */
+  private void put(final int from, final int to, final double weight) {
+    own(from);
+    final int[] row = targets[from];
+    final int k = Arrays.binarySearch(row, to);
+    if (k >= 0) {
+      weights[from][k] = weight;
+      return;
+    }
+    final int at = -k - 1;
+    final int[] newRow = new int[row.length + 1];
+    final double[] newWeights = new double[row.length + 1];
+    System.arraycopy(row, 0, newRow, 0, at);
+    System.arraycopy(weights[from], 0, newWeights, 0, at);
+    newRow[at] = to;
+    newWeights[at] = weight;
+    System.arraycopy(row, at, newRow, at + 1, row.length - at);
+    System.arraycopy(weights[from], at, newWeights, at + 1, row.length - at);
+    targets[from] = newRow;
+    weights[from] = newWeights;
+  }
+
+  /**
+   * Remove the edge from slot from to slot to from its sorted row.
+   */
+  private void delete(final int from, final int to) {
+    final int[] row = targets[from];
+    final int k = Arrays.binarySearch(row, to);
+    final int[] newRow = new int[row.length - 1];
+    final double[] newWeights = new double[row.length - 1];
+    System.arraycopy(row, 0, newRow, 0, k);
+    System.arraycopy(weights[from], 0, newWeights, 0, k);
+    System.arraycopy(row, k + 1, newRow, k, row.length - k - 1);
+    System.arraycopy(weights[from], k + 1, newWeights, k, row.length - k - 1);
+    targets[from] = newRow;
+    weights[from] = newWeights;
+    copied[from] = true;
+  }
+
+  /**
+   * Copy row i out of the base before its weights are changed in place.
+   */
+  private void own(final int i) {
+    if (!copied[i]) {
+      weights[i] = weights[i].clone();
+      copied[i] = true;
+    }
+  }
+
+  private void checkWeight(final double weight) {
+    if (!(weight >= 0.0 && weight < AdjMatrixDiGraph.NO_EDGE)) {
+      throw new IllegalArgumentException("Edge weight " + "must be >= 0.0");
+    }
+  }
+
+  private void checkNotBuilt() {
+    if (built) {
+      throw new IllegalStateException("editor already built");
+    }
+  }
+}
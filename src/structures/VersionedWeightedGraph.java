@@ -0,0 +1,76 @@
+
+package structures;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current version of a weighted graph as an immutable
+ * <code>WeightedGraphSnapshot</code>. Readers call <code>current()</code>
+ * once per query and work on the snapshot it returns; they never lock and keep
+ * a consistent view while newer versions are published.
+ * 
+ * A writer edits the current snapshot and publishes the result:
+ * 
+ * <pre>
+ * SnapshotEditor&lt;String&gt; editor = versions.current().edit();
+ * editor.setEdgeWeight(a, 12.0, b);
+ * editor.setEdgeWeight(c, 4.5, d);
+ * versions.publish(editor);
+ * </pre>
+ * 
+ * Publication is a single compare-and-set, so a batch becomes visible to every
+ * reader at once.
+ */
+public class VersionedWeightedGraph<T> {
+
+  /**
+   * The latest published snapshot.
+   */
+  private final AtomicReference<WeightedGraphSnapshot<T>> current;
+
+  /**
+   * Constructor. Publish a snapshot of the current state of
+   * <code>graph</code> as version 0.
+   * 
+   * @param graph The graph to copy; must not be <code>null</code>.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public VersionedWeightedGraph(final WeightedGraph<T> graph) {
+    this.current = new AtomicReference<WeightedGraphSnapshot<T>>(WeightedGraphSnapshot.freeze(graph));
+  }
+
+  /**
+   * Get the latest published snapshot.
+   * 
+   * @return WeightedGraphSnapshot The current version.
+   */
+  public WeightedGraphSnapshot<T> current() {
+    return current.get();
+  }
+
+  /**
+   * Build the edits in <code>editor</code> and make them the current version,
+   * provided no other version was published since the editor's base.
+   * 
+   * @param editor The batch to publish; must not be <code>null</code> and must
+   *          not have been built.
+   * @return boolean <code>true</code> if the batch was published;
+   *         <code>false</code> if another writer published first, in which
+   *         case the batch should be redone against the new
+   *         <code>current()</code>.
+   * @throws IllegalArgumentException if <code>editor</code> is
+   *           <code>null</code>.
+   * @throws IllegalStateException if the editor has been built.
+   */
+  public boolean publish(final SnapshotEditor<T> editor) {
+    if (editor == null) {
+      throw new IllegalArgumentException("null editor");
+    }
+    final WeightedGraphSnapshot<T> base = editor.getBase();
+    if (current.get() != base) {
+      return false;
+    }
+    return current.compareAndSet(base, editor.build());
+  }
+}
@@ -2,11 +2,27 @@
 package structures;
 
 /**
- * A vertex in a graph. Every vertex has an identifying, immutable label.
+ * A vertex in a graph. Every vertex has an identifying, immutable label, and
+ * may have a latitude and longitude. Vertices are equal when their labels
+ * are; the hash of the label is computed once, so a graph can look a vertex
+ * up in its index cheaply.
  */
 public class Vertex<E> {
   final private E label;
 
+  /**
+   * The hashcode of label, computed once.
+   */
+  final private int hash;
+
+  /**
+   * The latitude and longitude of this vertex in degrees, or NaN if it has no
+   * location.
+   */
+  private double latitude = Double.NaN;
+
+  private double longitude = Double.NaN;
+
   /**
    * Create a new vertex storing <code>theLabel</code>.
    * 
@@ -14,6 +30,7 @@ public class Vertex<E> {
    */
   public Vertex(final E theLabel) {
     this.label = theLabel;
+    this.hash = theLabel == null ? 0 : theLabel.hashCode();
   }
 
   /**
@@ -25,6 +42,53 @@ public class Vertex<E> {
     return this.label;
   }
 
+  /**
+   * Give this vertex a location on the earth. The location is optional and
+   * plays no part in equality; it is used by distance estimates such as
+   * <code>GreatCircleHeuristic</code>.
+   * 
+   * @param lat The latitude in degrees, from -90 to 90.
+   * @param lon The longitude in degrees, from -180 to 180.
+   * @throws IllegalArgumentException if either is out of range.
+   */
+  public void setLocation(final double lat, final double lon) {
+    if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+      throw new IllegalArgumentException("location out of range");
+    }
+    this.latitude = lat;
+    this.longitude = lon;
+  }
+
+  /**
+   * Determine if this vertex has a location.
+   * 
+   * @return boolean <code>true</code> if <code>setLocation()</code> has been
+   *         called.
+   */
+  public boolean hasLocation() {
+    return !Double.isNaN(this.latitude);
+  }
+
+  /**
+   * Get the latitude of this vertex.
+   * 
+   * @return double The latitude in degrees, or NaN if this vertex has no
+   *         location.
+   */
+  public double getLatitude() {
+    return this.latitude;
+  }
+
+  /**
+   * Get the longitude of this vertex.
+   * 
+   * @return double The longitude in degrees, or NaN if this vertex has no
+   *         location.
+   */
+  public double getLongitude() {
+    return this.longitude;
+  }
+
   /**
    * Determine if this Vertex is equal to <code>o</code>. Comparison is based on
    * the value stored in the vertex. Overridden method from <code>Object</code>.
@@ -39,7 +103,11 @@ public class Vertex<E> {
     if (!(o instanceof Vertex)) {
       throw new ClassCastException();
     }
-    return this.label.equals(((Vertex<E>) o).getLabel());
+    if (this == o) {
+      return true;
+    }
+    final Vertex<?> other = (Vertex<?>) o;
+    return this.hash == other.hash && this.label.equals(other.label);
   }
 
   /**
@@ -50,7 +118,7 @@ public class Vertex<E> {
    */
   @Override
   public int hashCode() {
-    return this.label.hashCode();
+    return this.hash;
   }
 
   /**
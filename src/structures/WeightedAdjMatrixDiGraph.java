@@ -1,18 +1,39 @@
 
 package structures;
 
+import java.util.Arrays;
+
 /**
  * A weighted, directed graph stored in an adjacency matrix. The weights must be
  * >= 0.
  */
 public class WeightedAdjMatrixDiGraph<T> extends AdjMatrixDiGraph<T> implements
-    WeightedGraph<T> {
+    IndexedWeightedGraph<T> {
 
+  /**
+   * Store edges and their weights. weights[i][j] is the weight of the edge from
+   * vertex i to vertex j, or <code>NO_EDGE</code> if there is no such edge, so
+   * this matrix replaces the adjacency matrix of the superclass.
+   */
   protected double[][] weights;
 
+  /**
+   * Constructor. Create an empty instance of a weighted, directed graph.
+   */
   public WeightedAdjMatrixDiGraph() {
-    super();
-    weights = new double[AdjMatrixDiGraph.SIZE][AdjMatrixDiGraph.SIZE];
+    this(AdjMatrixDiGraph.SIZE);
+  }
+
+  /**
+   * Constructor. Create an empty instance of a weighted, directed graph with room
+   * for <code>initialCapacity</code> vertices before the backing arrays must
+   * grow.
+   * 
+   * @param initialCapacity The number of vertex slots to allocate up front.
+   * @throws IllegalArgumentException if <code>initialCapacity</code> < 0.
+   */
+  public WeightedAdjMatrixDiGraph(final int initialCapacity) {
+    super(initialCapacity);
   }
 
   /**
@@ -30,11 +51,10 @@ public class WeightedAdjMatrixDiGraph<T> extends AdjMatrixDiGraph<T> implements
    */
   @Override
   public void addEdge(final Vertex<T> v1, final double weight, final Vertex<T> v2) {
-    if (weight < 0.0) {
+    if (!(weight >= 0.0 && weight < NO_EDGE)) {
       throw new IllegalArgumentException("Edge weight must be >= 0.0");
     }
-    super.addEdge(v1, v2);
-    this.weights[v1Pos][v2Pos] = weight;
+    super.insertEdge(v1, weight, v2);
   }
 
   /**
@@ -69,9 +89,25 @@ public class WeightedAdjMatrixDiGraph<T> extends AdjMatrixDiGraph<T> implements
   public double getEdgeWeight(final Vertex<T> v1, final Vertex<T> v2) {
     final int srcPos = super.getVerticesIndexFor(v1);
     final int destPos = super.getVerticesIndexFor(v2);
-    // if we get here, method in superclass didn't throw an exception
-    // and method preconditions are met
-    return weights[srcPos][destPos];
+    if (srcPos == -1 || destPos == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    return getEdgeWeight(srcPos, destPos);
+  }
+
+  /**
+   * Get the weight of the edge from the vertex in slot <code>from</code> to the
+   * vertex in slot <code>to</code>.
+   * 
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   * @return double The weight of the edge, or 0.0 if there is no such edge.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  @Override
+  public double getEdgeWeight(final int from, final int to) {
+    final double weight = weights[from][to];
+    return weight == NO_EDGE ? 0.0 : weight;
   }
 
   /**
@@ -84,20 +120,93 @@ public class WeightedAdjMatrixDiGraph<T> extends AdjMatrixDiGraph<T> implements
    * @param dest The destination vertex; must not be <code>null</code> and must
    *          be a vertex in this graph.
    * @throws IllegalArgumentException if <tt<v1</code> or <code>v2</code> are
-   *           <code>null</code> or are not in this graph, or if
+   *           <code>null</code> or are not in this graph, if there is no edge
+   *           from <code>src</code> to <code>dest</code>, or if
    *           <code>weight</code> is < 0.
    */
   @Override
   public void setEdgeWeight(final Vertex<T> src,
                             final double newWeight,
                             final Vertex<T> dest) {
-    if (newWeight < 0.0) {
+    if (!(newWeight >= 0.0 && newWeight < NO_EDGE)) {
       throw new IllegalArgumentException("Edge weight must be >= 0.0");
     }
     final int srcPos = super.getVerticesIndexFor(src);
     final int destPos = super.getVerticesIndexFor(dest);
-    // if we get here, method in superclass didn't throw an exception
-    // and method preconditions are met
-    weights[srcPos][destPos] = newWeight;
+    if (srcPos == -1 || destPos == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    if (!hasEdge(srcPos, destPos)) {
+      throw new IllegalArgumentException("edge not found");
+    }
+    putEdge(srcPos, destPos, newWeight);
+  }
+
+  /**
+   * Allocate or reallocate the weight matrix with <code>newCapacity</code>
+   * slots. This graph keeps no separate adjacency matrix.
+   * 
+   * @param newCapacity The new number of vertex slots.
+   */
+  @Override
+  protected void resizeEdges(final int newCapacity) {
+    weights = resizeMatrix(weights, newCapacity);
+  }
+
+  @Override
+  protected double edgeWeightAt(final int from, final int to) {
+    return weights[from][to];
+  }
+
+  @Override
+  public boolean hasEdge(final int from, final int to) {
+    return weights[from][to] != NO_EDGE;
+  }
+
+  @Override
+  protected void putEdge(final int from, final int to, final double weight) {
+    weights[from][to] = weight;
+  }
+
+  @Override
+  protected void deleteEdge(final int from, final int to) {
+    weights[from][to] = NO_EDGE;
+  }
+
+  @Override
+  protected void clearEdgesFrom(final int slot) {
+    Arrays.fill(weights[slot], NO_EDGE);
+  }
+
+  @Override
+  public int nextNeighbor(final int slot, final int from) {
+    final double[] row = weights[slot];
+    for (int i = from; i < row.length; i++) {
+      if (row[i] != NO_EDGE) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public void forEachNeighbor(final int slot, final WeightedNeighborVisitor visitor) {
+    final double[] row = weights[slot];
+    for (int i = 0; i < row.length; i++) {
+      if (row[i] != NO_EDGE) {
+        visitor.visit(i, row[i]);
+      }
+    }
+  }
+
+  @Override
+  public int degree(final int slot) {
+    int count = 0;
+    for (double weight : weights[slot]) {
+      if (weight != NO_EDGE) {
+        count++;
+      }
+    }
+    return count;
   }
 }
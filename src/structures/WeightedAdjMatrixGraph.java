@@ -6,29 +6,56 @@
 
 package structures;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 
 /**
  * A weighted, undirected graph stored in an adjacency matrix. The weights must
- * be >= 0.
+ * be >= 0. Because the matrix is symmetric only its lower triangle is stored.
  */
-public class WeightedAdjMatrixGraph<T> extends AdjMatrixGraph<T> implements WeightedGraph<T> {
+public class WeightedAdjMatrixGraph<T> extends AdjMatrixGraph<T> implements
+    IndexedWeightedGraph<T> {
   /**
    * The default weight for an edge in a weighted graph.
    */
   public static final float DEFAULT_WEIGHT = (float) 1.0;
 
   /**
-   * Store weight edges. The adjacency matrix storing edges is in an ancestor
-   * class.
+   * The largest capacity whose packed triangle, capacity * (capacity + 1) / 2
+   * cells, fits in one array.
    */
-  protected double[][] weights;
+  public static final int MAX_CAPACITY = 65535;
 
+  /**
+   * The largest array length most virtual machines will allocate.
+   */
+  private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+  /**
+   * Store edges and their weights as the lower triangle of the weight matrix,
+   * packed row by row: the weight of the edge between vertex i and vertex j,
+   * for j <= i, is in weights[i * (i + 1) / 2 + j] (see cell()). A cell holds
+   * <code>NO_EDGE</code> if there is no such edge. This array replaces the
+   * adjacency matrix of the ancestor class.
+   */
+  protected double[] weights;
+
+  /**
+   * Constructor. Create an empty instance of a weighted, undirected graph.
+   */
   public WeightedAdjMatrixGraph() {
-    super();
-    weights = new double[AdjMatrixGraph.SIZE][AdjMatrixGraph.SIZE];
+    this(AdjMatrixGraph.SIZE);
+  }
+
+  /**
+   * Constructor. Create an empty instance of a weighted, undirected graph with room
+   * for <code>initialCapacity</code> vertices before the backing arrays must
+   * grow.
+   * 
+   * @param initialCapacity The number of vertex slots to allocate up front.
+   * @throws IllegalArgumentException if <code>initialCapacity</code> < 0.
+   */
+  public WeightedAdjMatrixGraph(final int initialCapacity) {
+    super(initialCapacity);
   }
 
   /**
@@ -46,15 +73,11 @@ public class WeightedAdjMatrixGraph<T> extends AdjMatrixGraph<T> implements Weig
    */
   @Override
   public void addEdge(final Vertex<T> v1, final double weight, final Vertex<T> v2) {
-    if (weight < 0.0) {
+    if (!(weight >= 0.0 && weight < NO_EDGE)) {
       throw new IllegalArgumentException("Edge weight " + " must be >= 0.0");
     }
 
-    super.addEdge(v1, v2);
-
-    // if we get here, method in superclass didn't throw
-    // an exception and method preconditions are met
-    this.setEdgeWeight(v1, weight, v2);
+    super.insertEdge(v1, weight, v2);
   }
 
   /**
@@ -73,9 +96,25 @@ public class WeightedAdjMatrixGraph<T> extends AdjMatrixGraph<T> implements Weig
   public double getEdgeWeight(final Vertex<T> v1, final Vertex<T> v2) {
     final int v1Pos = super.getVerticesIndexFor(v1);
     final int v2Pos = super.getVerticesIndexFor(v2);
-    // if we get here, method in superclass didn't throw
-    // an exception and method preconditions are met
-    return weights[v1Pos][v2Pos];
+    if (v1Pos == -1 || v2Pos == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    return getEdgeWeight(v1Pos, v2Pos);
+  }
+
+  /**
+   * Get the weight of the edge from the vertex in slot <code>from</code> to the
+   * vertex in slot <code>to</code>.
+   * 
+   * @param from The slot of the source vertex.
+   * @param to The slot of the destination vertex.
+   * @return double The weight of the edge, or 0.0 if there is no such edge.
+   * @throws IndexOutOfBoundsException if either slot is out of range.
+   */
+  @Override
+  public double getEdgeWeight(final int from, final int to) {
+    final double weight = weights[cell(from, to)];
+    return weight == NO_EDGE ? 0.0 : weight;
   }
 
   /**
@@ -88,20 +127,24 @@ public class WeightedAdjMatrixGraph<T> extends AdjMatrixGraph<T> implements Weig
    * @param v2 The destination vertex; must not be <code>null</code> and must be
    *          a vertex in this graph.
    * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
-   *           <code>null</code> or are not in this graph, or if
+   *           <code>null</code> or are not in this graph, if there is no edge
+   *           between <code>v1</code> and <code>v2</code>, or if
    *           <code>weight</code> is < 0.
    */
   @Override
   public void setEdgeWeight(final Vertex<T> v1, final double newWeight, final Vertex<T> v2) {
-    if (newWeight < 0.0) {
+    if (!(newWeight >= 0.0 && newWeight < NO_EDGE)) {
       throw new IllegalArgumentException("Edge weight " + "must be >= 0.0");
     }
     final int v1Pos = super.getVerticesIndexFor(v1);
     final int v2Pos = super.getVerticesIndexFor(v2);
-    // if we get here, method in superclass didn't throw an
-    // exception and method preconditions are met
-    weights[v1Pos][v2Pos] = newWeight;
-    weights[v2Pos][v1Pos] = newWeight;
+    if (v1Pos == -1 || v2Pos == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    if (!hasEdge(v1Pos, v2Pos)) {
+      throw new IllegalArgumentException("edge not found");
+    }
+    putEdge(v1Pos, v2Pos, newWeight);
   }
 
   // overloaded methods from AdjMatrixGraph
@@ -131,75 +174,37 @@ public class WeightedAdjMatrixGraph<T> extends AdjMatrixGraph<T> implements Weig
    * @return double The cost of the path or -1 if none is found.
    */
   public double minimalPath(final Vertex<T> src, final Vertex<T> dest) {
-    // keep track of which vertices have been visited already
-    final ArrayList<Vertex<T>> visitedVertices = new ArrayList<Vertex<T>>();
-
-    // Comparator for the priority queue where the shortest
-    // paths found so far a stored.
-    final Comparator pathCostComparator = new Comparator() {
-      @Override
-      public int compare(final Object o1, final Object o2) {
-        final Double i1 = ((Tuple<Vertex<T>, Double>) o1).getSecondElement();
-        final Double i2 = ((Tuple<Vertex<T>, Double>) o2).getSecondElement();
-        return i1.compareTo(i2);
-      }
-
-      @Override
-      public boolean equals(final Object obj) {
-        return false;
-      }
-    };
-
-    // Stores the shortest paths from the source vertex
-    // found so far. These are stored as tuples.
-    // The first field of the tuple is the terminating
-    // node in some shortest path starting from src
-    // The second field is the cost of that path
-    final PriorityQueue<Tuple<Vertex<T>, Double>> pq =
-        new HeapPriorityQueue<Tuple<Vertex<T>, Double>>(pathCostComparator);
-
-    Tuple<Vertex<T>, Double> pathTuple;
-
-    // start with the source, which has a cost of 0 to
-    // get to itself
-    pq.enqueue(new Tuple(src, 0.0));
-
-    while (!pq.isEmpty()) {
-      // get cheapest path seen so far from src to some
-      // other vertex
-      pathTuple = pq.dequeue();
-
-      // extract the fields of the tuple so we can
-      // work with them
-      final Vertex<T> v = pathTuple.getFirstElement();
-      final double minCostToV = pathTuple.getSecondElement();
-
-      visitedVertices.add(v); // visit vertex v
+    return minimalPath(this, src, dest);
+  }
 
-      // if v is the destination vertex, we are done
-      if (v.equals(dest)) {
-        return minCostToV;
-      }
+  /**
+   * Find the minimal paths from <code>src</code> to every vertex in this
+   * graph with a single run of Dijkstra's algorithm.
+   * 
+   * @param src Vertex The vertex the paths start at.
+   * @return ShortestPathTree The costs of and routes to every vertex.
+   * @throws IllegalArgumentException if <code>src</code> is <code>null</code>
+   *           or is not in this graph.
+   */
+  public ShortestPathTree<T> shortestPathTree(final Vertex<T> src) {
+    return new DijkstraEngine<T>(this).shortestPathTree(src);
+  }
 
-      // okay, not done yet; look at the vertices
-      // adjacent to v
-      final ArrayList<Vertex<T>> neighbors = (ArrayList<Vertex<T>>) getNeighbors(v);
-      while (!neighbors.isEmpty()) {
-        final Vertex<T> w = neighbors.remove(0); // next neighbor
-
-        // if w hasn't been visited already, add it to
-        // the priority queue
-        if (!visitedVertices.contains(w)) {
-          // get the total path cost from src to v
-          final double minCostToW = minCostToV + getEdgeWeight(v, w);
-          pathTuple = new Tuple<Vertex<T>, Double>(w, minCostToW);
-          pq.enqueue(pathTuple);
-        }
-      }
-    }
-    // if the loop terminates naturally, we never found
-    // the destination vertex, so return failure
-    return -1;
+  /**
+   * Find a minimal cost path from <code>src</code> to <code>dest</code> in
+   * <code>graph</code>. Assumes edge weights are positive. Each call uses a
+   * fresh <code>DijkstraEngine</code>; callers that run many queries should
+   * keep one of their own.
+   * 
+   * @param graph The graph to search.
+   * @param src Vertex The first vertex in the path.
+   * @param dest Vertex The last vertex in the path.
+   * @return double The cost of the path or -1 if none is found.
+   */
+  static <T> double minimalPath(final IndexedWeightedGraph<T> graph,
+                                final Vertex<T> src,
+                                final Vertex<T> dest) {
+    return new DijkstraEngine<T>(graph).minimalPath(src, dest);
   }
 
   // Methods added for TCSS 342
@@ -210,47 +215,280 @@ public class WeightedAdjMatrixGraph<T> extends AdjMatrixGraph<T> implements Weig
    * http://en.wikipedia.org/wiki/Floyd%E2%80%93Warshall_algorithm
    * 
    * @param the_graph the graph to process
-   * @return A 2D array representing all shortest paths through the_graph
+   * @return A 2D array representing all shortest paths through the_graph; row
+   *         and column i belong to the i-th vertex returned by getVertices()
    */
   public static double[][] floydShortestPaths(final WeightedAdjMatrixGraph<String> the_graph) {
+    return floydShortestPaths(the_graph, null);
+  }
 
-    final double[][] shortest_paths =
-        new double[the_graph.numberOfVertices][the_graph.numberOfVertices];
+  /**
+   * Floyd-Warshall all-pairs shortest-path algorithm that also records routes.
+   * As well as returning the matrix of shortest distances, fills
+   * <code>next_hops</code> so that <code>next_hops[i][j]</code> is the index
+   * of the vertex after vertex i on a shortest path from vertex i to vertex
+   * j, or -1 if there is no such path. <code>floydRoute()</code> turns the
+   * matrix into a route in O(hops).
+   * 
+   * @param the_graph the graph to process
+   * @param next_hops a square matrix with one row and column per vertex in
+   *          the_graph, or <code>null</code> to record no routes
+   * @return A 2D array representing all shortest paths through the_graph; row
+   *         and column i belong to the i-th vertex returned by getVertices()
+   * @throws IllegalArgumentException if next_hops has the wrong size
+   */
+  public static double[][] floydShortestPaths(final WeightedAdjMatrixGraph<String> the_graph,
+                                              final int[][] next_hops) {
+    return floydShortestPaths(the_graph, next_hops, 1);
+  }
 
-    // copy edge weights to shortest_paths array
-    for (int row = 0; row < shortest_paths.length; row++) {
-      for (int col = 0; col < shortest_paths.length; col++) {
-        if (row != col) { // leave the row == col diagonal set to zero
-          double weight = the_graph.weights[col][row];
-          if (weight == 0) { // no edge here
-            weight = Double.MAX_VALUE;
-          }
-          shortest_paths[col][row] = weight;
-        }
-      }
+  /**
+   * Floyd-Warshall all-pairs shortest-path algorithm run on
+   * <code>parallelism</code> threads. For each intermediate vertex k the rows
+   * i are independent, so they are split across a ForkJoinPool; the results
+   * are bit-identical to the sequential version.
+   * 
+   * @param the_graph the graph to process
+   * @param next_hops a square matrix with one row and column per vertex in
+   *          the_graph, or <code>null</code> to record no routes
+   * @param parallelism the number of threads to use; 1 runs on the calling
+   *          thread
+   * @return A 2D array representing all shortest paths through the_graph; row
+   *         and column i belong to the i-th vertex returned by getVertices()
+   * @throws IllegalArgumentException if next_hops has the wrong size or
+   *           parallelism < 1
+   */
+  public static double[][] floydShortestPaths(final WeightedAdjMatrixGraph<String> the_graph,
+                                              final int[][] next_hops,
+                                              final int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1");
+    }
+
+    // row and column i of shortest_paths belong to the vertex in
+    // slot slots[i]; this skips any free slots in the graph
+    final int[] slots = the_graph.occupiedSlots();
+    final double[][] shortest_paths = new double[slots.length][slots.length];
+    if (next_hops != null) {
+      FloydWarshall.checkSquare(next_hops, slots.length);
     }
 
-    // calculate shortest paths
-    for (int k = 0; k < shortest_paths.length; k++) {
-      for (int i = 0; i < shortest_paths.length; i++) {
-        for (int j = 0; j < shortest_paths.length; j++) {
-          shortest_paths[i][j] =
-              Math.min(shortest_paths[i][j], shortest_paths[i][k] + shortest_paths[k][j]);
-        }
+    // copy edge weights to shortest_paths array; a missing edge is
+    // already stored as NO_EDGE (infinity). Each packed row of the
+    // triangle fills one row and one column of shortest_paths
+    for (int row = 0; row < shortest_paths.length; row++) {
+      for (int col = 0; col < row; col++) {
+        shortest_paths[row][col] = the_graph.weights[cell(slots[row], slots[col])];
+        shortest_paths[col][row] = shortest_paths[row][col];
       }
+      // leave the row == col diagonal set to zero
     }
+
+    // calculate shortest paths; with next_hops, a path through k starts
+    // the way the path to k does
+    FloydWarshall.rows(shortest_paths, next_hops, parallelism);
     return shortest_paths;
   }
 
+  /**
+   * Get the route from vertex <code>from</code> to vertex <code>to</code> from
+   * a next-hop matrix filled by <code>floydShortestPaths()</code>. Runs in
+   * O(hops) time with no search.
+   * 
+   * @param next_hops the next-hop matrix
+   * @param from the index of the first vertex in the route
+   * @param to the index of the last vertex in the route
+   * @return The indices of the vertices on the route, starting with from and
+   *         ending with to; empty if there is no route
+   */
+  public static int[] floydRoute(final int[][] next_hops, final int from, final int to) {
+    if (next_hops[from][to] == -1) {
+      return new int[0];
+    }
+    int hops = 1;
+    for (int at = from; at != to; at = next_hops[at][to]) {
+      hops++;
+    }
+    final int[] route = new int[hops];
+    int at = from;
+    for (int hop = 0; hop < hops; hop++) {
+      route[hop] = at;
+      at = next_hops[at][to];
+    }
+    return route;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder();
     sb.append(super.toString());
     sb.append("\nWeights:\n");
-    for (int index = 0; index < numberOfVertices; index++) {
+    for (int index : occupiedSlots()) {
       sb.append(String.format("%15s ", vertices[index]));
-      sb.append(Arrays.toString(weights[index]) + "\n");
+      sb.append('[');
+      for (int col = 0; col < vertices.length; col++) {
+        sb.append(col == 0 ? "" : ", ").append(weights[cell(index, col)]);
+      }
+      sb.append("]\n");
     }
     return sb.toString();
   }
+
+  /**
+   * Return the position in weights of the cell for slots <code>i</code> and
+   * <code>j</code>, in either order.
+   * 
+   * @param i The slot of one end of the edge.
+   * @param j The slot of the other end of the edge.
+   * @return int The index into weights.
+   */
+  protected static int cell(final int i, final int j) {
+    // slots are below MAX_CAPACITY, so i * (i + 1) < 2^32 and the unsigned
+    // shift halves it correctly even when the product overflows an int
+    return i >= j ? ((i * (i + 1)) >>> 1) + j : ((j * (j + 1)) >>> 1) + i;
+  }
+
+  /**
+   * Grow the backing arrays, if necessary, so this graph can hold at least
+   * <code>minCapacity</code> vertices without reallocating. The capacity is at
+   * least doubled on each growth, but never past <code>MAX_CAPACITY</code>.
+   * 
+   * @param minCapacity The desired minimum capacity.
+   * @throws IllegalArgumentException if <code>minCapacity</code> >
+   *           <code>MAX_CAPACITY</code>.
+   */
+  @Override
+  public void ensureCapacity(final int minCapacity) {
+    if (minCapacity > getCapacity()) {
+      triangleLength(minCapacity);
+      resize(Math.max(minCapacity, (int) Math.min(MAX_CAPACITY, 2L * getCapacity())));
+    }
+  }
+
+  /**
+   * Check that the triangle fits before any array is reallocated, so a
+   * failed resize leaves this graph unchanged.
+   * 
+   * @param newCapacity The new number of vertex slots.
+   * @throws IllegalArgumentException if <code>newCapacity</code> >
+   *           <code>MAX_CAPACITY</code>.
+   */
+  @Override
+  protected void resize(final int newCapacity) {
+    triangleLength(newCapacity);
+    super.resize(newCapacity);
+  }
+
+  /**
+   * Allocate or reallocate the packed triangle with <code>newCapacity</code>
+   * slots. Row i of the triangle follows rows 0 to i - 1, so growing or
+   * shrinking keeps every surviving cell at the same index. This graph keeps
+   * no separate adjacency matrix.
+   * 
+   * @param newCapacity The new number of vertex slots.
+   * @throws IllegalArgumentException if <code>newCapacity</code> >
+   *           <code>MAX_CAPACITY</code>.
+   */
+  @Override
+  protected void resizeEdges(final int newCapacity) {
+    final int oldLength = weights == null ? 0 : weights.length;
+    final int newLength = triangleLength(newCapacity);
+    weights = weights == null ? new double[newLength] : Arrays.copyOf(weights, newLength);
+    if (newLength > oldLength) {
+      Arrays.fill(weights, oldLength, newLength, NO_EDGE);
+    }
+  }
+
+  /**
+   * Return the number of cells in the triangle of a graph with
+   * <code>capacity</code> slots.
+   * 
+   * @param capacity The number of vertex slots.
+   * @return int The length of weights.
+   * @throws IllegalArgumentException if the triangle is too large for an
+   *           array.
+   */
+  private static int triangleLength(final int capacity) {
+    final long length = (long) capacity * (capacity + 1) / 2;
+    if (length > MAX_ARRAY_LENGTH) {
+      throw new IllegalArgumentException("capacity " + capacity + " exceeds "
+                                         + MAX_CAPACITY);
+    }
+    return (int) length;
+  }
+
+  @Override
+  protected double edgeWeightAt(final int from, final int to) {
+    return weights[cell(from, to)];
+  }
+
+  @Override
+  public boolean hasEdge(final int from, final int to) {
+    return weights[cell(from, to)] != NO_EDGE;
+  }
+
+  @Override
+  protected void putEdge(final int from, final int to, final double weight) {
+    weights[cell(from, to)] = weight;
+  }
+
+  @Override
+  protected void deleteEdge(final int from, final int to) {
+    weights[cell(from, to)] = NO_EDGE;
+  }
+
+  @Override
+  protected void clearEdgesFrom(final int slot) {
+    // the row part of the triangle is contiguous...
+    final int rowStart = cell(slot, 0);
+    Arrays.fill(weights, rowStart, rowStart + slot + 1, NO_EDGE);
+    // ...and the column part steps down one row at a time
+    for (int i = slot + 1, index = cell(i, slot); i < vertices.length; index += ++i) {
+      weights[index] = NO_EDGE;
+    }
+  }
+
+  @Override
+  public int nextNeighbor(final int slot, final int from) {
+    final int rowStart = cell(slot, 0);
+    int i = from;
+    for (; i <= slot; i++) {
+      if (weights[rowStart + i] != NO_EDGE) {
+        return i;
+      }
+    }
+    for (int index = cell(i, slot); i < vertices.length; index += ++i) {
+      if (weights[index] != NO_EDGE) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public void forEachNeighbor(final int slot, final WeightedNeighborVisitor visitor) {
+    final int rowStart = cell(slot, 0);
+    int i = 0;
+    for (; i <= slot; i++) {
+      final double weight = weights[rowStart + i];
+      if (weight != NO_EDGE) {
+        visitor.visit(i, weight);
+      }
+    }
+    for (int index = cell(i, slot); i < vertices.length; index += ++i) {
+      final double weight = weights[index];
+      if (weight != NO_EDGE) {
+        visitor.visit(i, weight);
+      }
+    }
+  }
+
+  @Override
+  public int degree(final int slot) {
+    int count = 0;
+    for (int i = nextNeighbor(slot, 0); i != -1; i = nextNeighbor(slot, i + 1)) {
+      count++;
+    }
+    return count;
+  }
 }
@@ -0,0 +1,372 @@
+
+package structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, weighted graph. A snapshot never changes once it has been
+ * built, so any number of threads may query it without locking, and a query
+ * that started on a snapshot sees the same weights until it finishes.
+ * 
+ * Each vertex has its own row: <code>targets[i]</code> holds the slots of the
+ * neighbors of vertex i in increasing order and <code>weights[i]</code> the
+ * weights of the edges to them. A new version is made with
+ * <code>edit()</code>; the <code>SnapshotEditor</code> copies only the rows it
+ * changes and shares every other row, and the vertex index, with this
+ * snapshot. An undirected graph stores each edge in the rows of both of its
+ * endpoints.
+ * 
+ * Every method that would modify the graph in place throws
+ * <code>UnsupportedOperationException</code>.
+ */
+public class WeightedGraphSnapshot<T> implements IndexedWeightedGraph<T> {
+
+  /**
+   * The vertices of this snapshot; the index of a vertex in this array is its
+   * row. Shared by every version.
+   */
+  final Vertex<T>[] vertices;
+
+  /**
+   * Maps each vertex to its index in vertices. Shared by every version.
+   */
+  final Map<Vertex<T>, Integer> indices;
+
+  /**
+   * targets[i] is the sorted slots of the neighbors of vertex i.
+   */
+  final int[][] targets;
+
+  /**
+   * weights[i][k] is the weight of the edge from vertex i to targets[i][k].
+   */
+  final double[][] weights;
+
+  /**
+   * <code>true</code> if each edge is stored in the rows of both endpoints.
+   */
+  final boolean undirected;
+
+  /**
+   * The number of edges; an undirected edge counts once.
+   */
+  final int numberOfEdges;
+
+  /**
+   * The version number; the first snapshot of a graph is version 0.
+   */
+  final long version;
+
+  /**
+   * Create a snapshot from its parts. The arrays are not copied.
+   */
+  WeightedGraphSnapshot(final Vertex<T>[] vertices, final Map<Vertex<T>, Integer> indices,
+      final int[][] targets, final double[][] weights, final boolean undirected,
+      final int numberOfEdges, final long version) {
+    this.vertices = vertices;
+    this.indices = indices;
+    this.targets = targets;
+    this.weights = weights;
+    this.undirected = undirected;
+    this.numberOfEdges = numberOfEdges;
+    this.version = version;
+  }
+
+  /**
+   * Freeze the current state of <code>graph</code> into a snapshot. The
+   * snapshot is undirected if <code>graph.isUndirected()</code> is.
+   * 
+   * @param graph The graph to copy; must not be <code>null</code>.
+   * @return WeightedGraphSnapshot Version 0 of the copy.
+   * @throws IllegalArgumentException if <code>graph</code> is
+   *           <code>null</code>.
+   */
+  public static <T> WeightedGraphSnapshot<T> freeze(final WeightedGraph<T> graph) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    final Vertex<T>[] vertices = graph.getVertices();
+    final Map<Vertex<T>, Integer> indices = new HashMap<Vertex<T>, Integer>();
+    for (int i = 0; i < vertices.length; i++) {
+      indices.put(vertices[i], i);
+    }
+
+    final int[][] targets = new int[vertices.length][];
+    final double[][] weights = new double[vertices.length][];
+    for (int i = 0; i < vertices.length; i++) {
+      final List<Vertex<T>> neighbors = graph.getNeighbors(vertices[i]);
+      final int[] row = new int[neighbors.size()];
+      int k = 0;
+      for (Vertex<T> neighbor : neighbors) {
+        row[k++] = indices.get(neighbor);
+      }
+      Arrays.sort(row);
+      targets[i] = row;
+      weights[i] = new double[row.length];
+      for (k = 0; k < row.length; k++) {
+        weights[i][k] = graph.getEdgeWeight(vertices[i], vertices[row[k]]);
+      }
+    }
+    return new WeightedGraphSnapshot<T>(vertices, indices, targets, weights,
+        graph.isUndirected(), graph.getNumberOfEdges(), 0L);
+  }
+
+  /**
+   * Start a batch of edits against this snapshot. This snapshot is not
+   * changed; the edits become visible in the snapshot returned by the
+   * editor's <code>build()</code>.
+   * 
+   * @return SnapshotEditor An editor whose base is this snapshot.
+   */
+  public SnapshotEditor<T> edit() {
+    return new SnapshotEditor<T>(this);
+  }
+
+  /**
+   * Get the version number of this snapshot. Each snapshot built by an editor
+   * is one version newer than the snapshot it was edited from.
+   * 
+   * @return long The version number.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Determine if each edge of this snapshot goes both ways.
+   * 
+   * @return boolean <code>true</code> if this snapshot is undirected.
+   */
+  @Override
+  public boolean isUndirected() {
+    return undirected;
+  }
+
+  /**
+   * Not supported; snapshots are immutable. Use <code>edit()</code>.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void addVertex(final Vertex<T> v) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; snapshots are immutable. Use <code>edit()</code>.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void addEdge(final Vertex<T> v1, final Vertex<T> v2) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; snapshots are immutable. Use <code>edit()</code>.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void addEdge(final Vertex<T> v1, final double weight, final Vertex<T> v2) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; snapshots are immutable.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void removeVertex(final Vertex<T> v) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; snapshots are immutable. Use <code>edit()</code>.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void removeEdge(final Vertex<T> v1, final Vertex<T> v2) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Not supported; snapshots are immutable. Use <code>edit()</code>.
+   * 
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setEdgeWeight(final Vertex<T> v1, final double newWeight, final Vertex<T> v2) {
+    throw new UnsupportedOperationException("immutable graph");
+  }
+
+  /**
+   * Get the neighbors of Vertex <code>v</code> in this snapshot. Runs in
+   * O(degree) time.
+   * 
+   * @param v Vertex The vertex whose neighbors we want; must not be
+   *          <code>null</code> and must be a vertex in this graph.
+   * @return List The vertices incident on <code>v</code>.
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code> or
+   *           is not in this graph.
+   */
+  @Override
+  public List<Vertex<T>> getNeighbors(final Vertex<T> v) {
+    final int[] row = targets[getVerticesIndexFor(v)];
+    final List<Vertex<T>> neighbors = new ArrayList<Vertex<T>>(row.length);
+    for (int target : row) {
+      neighbors.add(vertices[target]);
+    }
+    return neighbors;
+  }
+
+  /**
+   * Get the weight of the edge from <code>v1</code> to <code>v2</code>. Runs in
+   * O(log(degree of <code>v1</code>)) time.
+   * 
+   * @param v1 The source vertex; must not be <code>null</code> and must be a
+   *          vertex in this graph.
+   * @param v2 The destination vertex; must not be <code>null</code> and must be
+   *          a vertex in this graph.
+   * @return double The weight of the edge from <code>v1</code> to
+   *         <code>v2</code>, or 0.0 if there is no such edge.
+   * @throws IllegalArgumentException if <code>v1</code> or <code>v2</code> are
+   *           <code>null</code> or are not in this graph.
+   */
+  @Override
+  public double getEdgeWeight(final Vertex<T> v1, final Vertex<T> v2) {
+    return getEdgeWeight(getVerticesIndexFor(v1), getVerticesIndexFor(v2));
+  }
+
+  @Override
+  public double getEdgeWeight(final int from, final int to) {
+    final int k = Arrays.binarySearch(targets[from], to);
+    return k < 0 ? 0.0 : weights[from][k];
+  }
+
+  @Override
+  public int getCapacity() {
+    return vertices.length;
+  }
+
+  @Override
+  public int indexOf(final Vertex<T> v) {
+    if (v == null) {
+      throw new IllegalArgumentException("null vertex");
+    }
+    final Integer pos = indices.get(v);
+    return pos == null ? -1 : pos;
+  }
+
+  @Override
+  public Vertex<T> vertexAt(final int slot) {
+    return vertices[slot];
+  }
+
+  @Override
+  public boolean hasEdge(final int from, final int to) {
+    return Arrays.binarySearch(targets[from], to) >= 0;
+  }
+
+  @Override
+  public int degree(final int slot) {
+    return targets[slot].length;
+  }
+
+  @Override
+  public void forEachNeighbor(final int slot, final NeighborVisitor visitor) {
+    for (int target : targets[slot]) {
+      visitor.visit(target);
+    }
+  }
+
+  @Override
+  public void forEachNeighbor(final int slot, final WeightedNeighborVisitor visitor) {
+    final int[] row = targets[slot];
+    final double[] rowWeights = weights[slot];
+    for (int k = 0; k < row.length; k++) {
+      visitor.visit(row[k], rowWeights[k]);
+    }
+  }
+
+  @Override
+  public int getNumberOfVertices() {
+    return vertices.length;
+  }
+
+  @Override
+  public int getNumberOfEdges() {
+    return numberOfEdges;
+  }
+
+  /**
+   * @return a copy of the vertex array.
+   */
+  @Override
+  public Vertex<T>[] getVertices() {
+    return Arrays.copyOf(vertices, vertices.length);
+  }
+
+  /**
+   * Find a minimal cost path from <code>src</code> to <code>dest</code> in this
+   * snapshot. Assumes edge weights are positive.
+   * 
+   * @param src Vertex The first vertex in the path.
+   * @param dest Vertex The last vertex in the path.
+   * @return double The cost of the path or -1 if none is found.
+   */
+  public double minimalPath(final Vertex<T> src, final Vertex<T> dest) {
+    return WeightedAdjMatrixGraph.minimalPath(this, src, dest);
+  }
+
+  /**
+   * Find the minimal paths from <code>src</code> to every vertex in this
+   * graph with a single run of Dijkstra's algorithm.
+   * 
+   * @param src Vertex The vertex the paths start at.
+   * @return ShortestPathTree The costs of and routes to every vertex.
+   * @throws IllegalArgumentException if <code>src</code> is <code>null</code>
+   *           or is not in this graph.
+   */
+  public ShortestPathTree<T> shortestPathTree(final Vertex<T> src) {
+    return new DijkstraEngine<T>(this).shortestPathTree(src);
+  }
+
+  /**
+   * Return the position of v in vertices.
+   * 
+   * @throws IllegalArgumentException if <code>v</code> is <code>null</code> or
+   *           is not in this graph.
+   */
+  int getVerticesIndexFor(final Vertex<T> v) {
+    final int pos = indexOf(v);
+    if (pos == -1) {
+      throw new IllegalArgumentException("vertex not found");
+    }
+    return pos;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("Version ").append(version).append(":\n");
+    for (int index = 0; index < vertices.length; index++) {
+      sb.append(String.format("%15s ", vertices[index]));
+      sb.append('[');
+      for (int k = 0; k < targets[index].length; k++) {
+        if (k > 0) {
+          sb.append(", ");
+        }
+        sb.append(vertices[targets[index][k]]).append('=').append(weights[index][k]);
+      }
+      sb.append("]\n");
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,18 @@
+
+package structures;
+
+/**
+ * A callback that receives the neighbors of a vertex, one slot at a time,
+ * together with the weight of the edge leading to each neighbor, from
+ * <code>IndexedWeightedGraph.forEachNeighbor()</code>.
+ */
+public interface WeightedNeighborVisitor {
+
+  /**
+   * Called once for each neighbor of the vertex being visited.
+   * 
+   * @param slot The slot of the neighbor.
+   * @param weight The weight of the edge to the neighbor.
+   */
+  void visit(int slot, double weight);
+}
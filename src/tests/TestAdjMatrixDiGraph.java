@@ -322,4 +322,180 @@ public class TestAdjMatrixDiGraph extends TestCase {
     assertFalse(thepath.contains(v2));
     assertFalse(thepath.contains(v4));
   }
+
+  /**
+   * Verify that the graph grows past its initial capacity and keeps its edges.
+   */
+  public void testGrowPastCapacity() {
+    final AdjMatrixDiGraph<String> g = new AdjMatrixDiGraph<String>(2);
+    final List<Vertex<String>> added = new ArrayList<Vertex<String>>();
+    for (int i = 0; i < 25; i++) {
+      final Vertex<String> v = new Vertex<String>("V" + i);
+      g.addVertex(v);
+      if (i > 0) {
+        g.addEdge(added.get(i - 1), v);
+      }
+      added.add(v);
+    }
+    assertEquals(25, g.getNumberOfVertices());
+    assertEquals(24, g.getNumberOfEdges());
+    assertTrue(g.getCapacity() >= 25);
+    assertTrue(g.getNeighbors(added.get(0)).contains(added.get(1)));
+    assertTrue(g.getNeighbors(added.get(23)).contains(added.get(24)));
+  }
+
+  /**
+   * Verify that trimToSize releases unused slots but keeps the graph intact.
+   */
+  public void testTrimToSize() {
+    final AdjMatrixDiGraph<String> g = new AdjMatrixDiGraph<String>(100);
+    v1 = new Vertex<String>("A");
+    v2 = new Vertex<String>("B");
+    g.addVertex(v1);
+    g.addVertex(v2);
+    g.addEdge(v1, v2);
+    g.trimToSize();
+    assertEquals(2, g.getCapacity());
+    assertEquals(1, g.getNumberOfEdges());
+    assertTrue(g.getNeighbors(v1).contains(v2));
+    // the graph can still grow after trimming
+    v3 = new Vertex<String>("C");
+    g.addVertex(v3);
+    g.addEdge(v3, v1);
+    assertEquals(3, g.getNumberOfVertices());
+    assertTrue(g.getNeighbors(v3).contains(v1));
+  }
+
+  /**
+   * A negative capacity hint is rejected.
+   */
+  public void testNegativeCapacity() {
+    try {
+      new AdjMatrixDiGraph<String>(-1);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException e) {
+    }
+  }
+
+  /**
+   * Verify that vertices can be resolved to slots and back, and that the index
+   * follows vertex removal.
+   */
+  public void testIndexOf() {
+    v1 = new Vertex<String>("A");
+    v2 = new Vertex<String>("B");
+    graph.addVertex(v1);
+    graph.addVertex(v2);
+    graph.addEdge(v1, v2);
+    final int slot1 = graph.indexOf(new Vertex<String>("A"));
+    final int slot2 = graph.indexOf(v2);
+    assertTrue(slot1 >= 0);
+    assertTrue(slot2 >= 0);
+    assertSame(v1, graph.vertexAt(slot1));
+    assertTrue(graph.hasEdge(slot1, slot2));
+    assertFalse(graph.hasEdge(slot2, slot1));
+
+    graph.removeVertex(v1);
+    assertEquals(-1, graph.indexOf(v1));
+    assertNull(graph.vertexAt(slot1));
+    assertEquals(slot2, graph.indexOf(v2));
+    try {
+      graph.indexOf(null);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException e) {
+    }
+  }
+
+  /**
+   * Removed slots are reused, and getVertices() skips the holes left behind.
+   */
+  public void testSlotReuse() {
+    v1 = new Vertex<String>("A");
+    v2 = new Vertex<String>("B");
+    v3 = new Vertex<String>("C");
+    graph.addVertex(v1);
+    graph.addVertex(v2);
+    graph.addVertex(v3);
+    final int slot = graph.indexOf(v1);
+    graph.removeVertex(v1);
+    Vertex<String>[] all = graph.getVertices();
+    assertEquals(2, all.length);
+    assertEquals(v2, all[0]);
+    assertEquals(v3, all[1]);
+
+    v4 = new Vertex<String>("D");
+    graph.addVertex(v4);
+    assertEquals(slot, graph.indexOf(v4));
+    all = graph.getVertices();
+    assertEquals(3, all.length);
+    assertEquals(v4, all[0]);
+  }
+
+  /**
+   * Compacting moves vertices into a dense prefix and keeps their edges.
+   */
+  public void testCompact() {
+    final Vertex<String>[] vs = new Vertex[6];
+    for (int i = 0; i < vs.length; i++) {
+      vs[i] = new Vertex<String>("V" + i);
+      graph.addVertex(vs[i]);
+    }
+    graph.addEdge(vs[5], vs[4]);
+    graph.addEdge(vs[4], vs[5]);
+    graph.addEdge(vs[0], vs[5]);
+    graph.addEdge(vs[5], vs[5]);
+    graph.removeVertex(vs[1]);
+    graph.removeVertex(vs[2]);
+    graph.compact();
+    assertEquals(4, graph.getNumberOfVertices());
+    assertEquals(4, graph.getNumberOfEdges());
+    for (int slot = 0; slot < 4; slot++) {
+      assertNotNull(graph.vertexAt(slot));
+    }
+    assertTrue(graph.indexOf(vs[5]) < 4);
+    final List<Vertex<String>> neighbors = graph.getNeighbors(vs[5]);
+    assertEquals(2, neighbors.size());
+    assertTrue(neighbors.contains(vs[4]));
+    assertTrue(neighbors.contains(vs[5]));
+    assertTrue(graph.getNeighbors(vs[0]).contains(vs[5]));
+    assertTrue(graph.getNeighbors(vs[4]).contains(vs[5]));
+  }
+
+  /**
+   * Verify that vertex slots follow their vertex through removal and compaction,
+   * and that vertices of another graph are still looked up by label.
+   */
+  public void testVertexIds() {
+    v1 = new Vertex<String>("v1");
+    v2 = new Vertex<String>("v2");
+    v3 = new Vertex<String>("v3");
+    graph.addVertex(v1);
+    graph.addVertex(v2);
+    graph.addVertex(v3);
+
+    final AdjMatrixDiGraph<String> other = new AdjMatrixDiGraph<String>();
+    final Vertex<String> w3 = new Vertex<String>("v3");
+    final Vertex<String> w1 = new Vertex<String>("v1");
+    other.addVertex(w3);
+    other.addVertex(w1);
+    // same slot in different graphs is not the same vertex
+    assertFalse(v1.equals(w3));
+    assertTrue(v1.equals(w1));
+    assertEquals(graph.indexOf(v1), graph.indexOf(w1));
+    assertEquals(other.indexOf(w1), other.indexOf(v1));
+
+    graph.removeVertex(new Vertex<String>("v1"));
+    assertEquals(-1, graph.indexOf(v1));
+    assertTrue(v1.equals(w1));
+    graph.compact();
+    assertSame(v3, graph.vertexAt(graph.indexOf(v3)));
+    assertSame(v2, graph.vertexAt(graph.indexOf(v2)));
+    assertFalse(v2.equals(v3));
+
+    // a vertex shared by two graphs is found in both
+    other.addVertex(v2);
+    assertEquals(graph.indexOf(v2), graph.indexOf(new Vertex<String>("v2")));
+    assertSame(v2, graph.vertexAt(graph.indexOf(v2)));
+    assertSame(v2, other.vertexAt(other.indexOf(v2)));
+  }
 }
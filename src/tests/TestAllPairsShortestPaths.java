@@ -0,0 +1,248 @@
+
+package tests;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import structures.DynamicAllPairs;
+import structures.FloydAllPairs;
+import structures.IndexedWeightedGraph;
+import structures.JohnsonAllPairs;
+import structures.Vertex;
+import structures.WeightedAdjMatrixDiGraph;
+import structures.WeightedAdjMatrixGraph;
+
+public class TestAllPairsShortestPaths extends TestCase {
+
+  private static final int SIZE = 40;
+
+  private WeightedAdjMatrixDiGraph<String> graph = null;
+
+  private Vertex<String>[] vertices;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    final Random random = new Random(342);
+    graph = new WeightedAdjMatrixDiGraph<String>();
+    vertices = new Vertex[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      vertices[i] = new Vertex<String>("V" + i);
+      graph.addVertex(vertices[i]);
+    }
+    // about three edges per vertex
+    for (int edge = 0; edge < 3 * SIZE; edge++) {
+      final int from = random.nextInt(SIZE);
+      final int to = random.nextInt(SIZE);
+      if (from != to && !graph.hasEdge(from, to)) {
+        graph.addEdge(vertices[from], 1 + random.nextInt(50), vertices[to]);
+      }
+    }
+    // leave a free slot in the middle of the graph
+    graph.removeVertex(vertices[7]);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    graph = null;
+    super.tearDown();
+  }
+
+  public void testJohnsonAgreesWithFloyd() {
+    final int n = graph.getNumberOfVertices();
+    final int[][] floyd_hops = new int[n][n];
+    final double[][] expected = new FloydAllPairs<String>().shortestPaths(graph, floyd_hops);
+    final int[][] johnson_hops = new int[n][n];
+    final double[][] actual = new JohnsonAllPairs<String>().shortestPaths(graph, johnson_hops);
+    assertEquals(n, actual.length);
+
+    final Vertex<String>[] order = graph.getVertices();
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        assertEquals(expected[i][j], actual[i][j], .05);
+        assertEquals(floyd_hops[i][j] == -1, johnson_hops[i][j] == -1);
+        if (johnson_hops[i][j] != -1) {
+          // following the hops costs the minimal distance
+          double cost = 0;
+          for (int at = i; at != j; at = johnson_hops[at][j]) {
+            cost += graph.getEdgeWeight(order[at], order[johnson_hops[at][j]]);
+          }
+          assertEquals(actual[i][j], cost, .05);
+        }
+      }
+    }
+  }
+
+  public void testParallelJohnsonIsIdentical() {
+    final int n = graph.getNumberOfVertices();
+    final int[][] expected_hops = new int[n][n];
+    final double[][] expected =
+        new JohnsonAllPairs<String>().shortestPaths(graph, expected_hops);
+    for (int parallelism : new int[] {2, 3, 64}) {
+      final int[][] actual_hops = new int[n][n];
+      assertTrue(Arrays.deepEquals(expected,
+          new JohnsonAllPairs<String>(parallelism).shortestPaths(graph, actual_hops)));
+      assertTrue(Arrays.deepEquals(expected_hops, actual_hops));
+    }
+  }
+
+  public void testFloydProviderMatchesGraphFloyd() {
+    final Random random = new Random(342);
+    final WeightedAdjMatrixGraph<String> undirected = new WeightedAdjMatrixGraph<String>();
+    for (int i = 0; i < SIZE; i++) {
+      undirected.addVertex(vertices[i]);
+      for (int j = 0; j < i; j++) {
+        if (random.nextInt(6) == 0) {
+          undirected.addEdge(vertices[i], random.nextDouble() * 100, vertices[j]);
+        }
+      }
+    }
+    final int[][] expected_hops = new int[SIZE][SIZE];
+    final double[][] expected =
+        WeightedAdjMatrixGraph.floydShortestPaths(undirected, expected_hops);
+    final int[][] actual_hops = new int[SIZE][SIZE];
+    assertTrue(Arrays.deepEquals(expected,
+        new FloydAllPairs<String>(2).shortestPaths(undirected, actual_hops)));
+    assertTrue(Arrays.deepEquals(expected_hops, actual_hops));
+  }
+
+  public void testDynamicTracksDirectedChanges() {
+    final Random random = new Random(142);
+    final DynamicAllPairs<String> dynamic = new DynamicAllPairs<String>(graph);
+    assertMatchesFloyd(graph, dynamic);
+    for (int change = 0; change < 200; change++) {
+      final int from = random.nextInt(SIZE);
+      final int to = random.nextInt(SIZE);
+      if (from == to || from == 7 || to == 7) {
+        continue;
+      }
+      if (!graph.hasEdge(from, to)) {
+        dynamic.addEdge(vertices[from], 1 + random.nextInt(50), vertices[to]);
+      } else if (random.nextInt(4) == 0) {
+        dynamic.removeEdge(vertices[from], vertices[to]);
+      } else {
+        dynamic.setEdgeWeight(vertices[from], 1 + random.nextInt(50), vertices[to]);
+      }
+      assertMatchesFloyd(graph, dynamic);
+    }
+  }
+
+  public void testDynamicTracksUndirectedChanges() {
+    final Random random = new Random(242);
+    final WeightedAdjMatrixGraph<String> undirected = new WeightedAdjMatrixGraph<String>();
+    for (int i = 0; i < SIZE; i++) {
+      undirected.addVertex(vertices[i]);
+      for (int j = 0; j < i; j++) {
+        if (random.nextInt(8) == 0) {
+          undirected.addEdge(vertices[i], random.nextDouble() * 100, vertices[j]);
+        }
+      }
+    }
+    final DynamicAllPairs<String> dynamic =
+        new DynamicAllPairs<String>(undirected, new JohnsonAllPairs<String>());
+    for (int change = 0; change < 200; change++) {
+      final int from = random.nextInt(SIZE);
+      final int to = random.nextInt(SIZE);
+      if (from == to) {
+        continue;
+      }
+      if (!undirected.hasEdge(from, to)) {
+        dynamic.addEdge(vertices[from], random.nextDouble() * 100, vertices[to]);
+      } else if (random.nextInt(4) == 0) {
+        dynamic.removeEdge(vertices[from], vertices[to]);
+      } else {
+        dynamic.setEdgeWeight(vertices[from], random.nextDouble() * 100, vertices[to]);
+      }
+      assertMatchesFloyd(undirected, dynamic);
+    }
+    assertEquals(dynamic.getShortestPaths()[0][5],
+                 dynamic.getDistance(vertices[0], vertices[5]), .05);
+    dynamic.recompute();
+    assertMatchesFloyd(undirected, dynamic);
+  }
+
+  public void testDynamicBadArguments() {
+    try {
+      new DynamicAllPairs<String>(null);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    final DynamicAllPairs<String> dynamic = new DynamicAllPairs<String>(graph);
+    try {
+      dynamic.setEdgeWeight(vertices[0], 1, vertices[7]);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      dynamic.getDistance(vertices[0], new Vertex<String>("Poo"));
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    final double[][] before = dynamic.getShortestPaths();
+    for (int to = 1; to < SIZE; to++) {
+      if (to != 7 && graph.hasEdge(0, to)) {
+        try {
+          dynamic.setEdgeWeight(vertices[0], -1, vertices[to]);
+          Assert.fail("exception should have been thrown");
+        } catch (final IllegalArgumentException ex) {
+        }
+        break;
+      }
+    }
+    assertSame(before, dynamic.getShortestPaths());
+    assertMatchesFloyd(graph, dynamic);
+  }
+
+  /**
+   * Check that the costs and routes kept by dynamic match a fresh run of
+   * Floyd-Warshall over graph.
+   */
+  private static void assertMatchesFloyd(final IndexedWeightedGraph<String> graph,
+                                         final DynamicAllPairs<String> dynamic) {
+    final double[][] expected = new FloydAllPairs<String>().shortestPaths(graph, null);
+    final double[][] actual = dynamic.getShortestPaths();
+    final int[][] hops = dynamic.getNextHops();
+    final Vertex<String>[] order = graph.getVertices();
+    for (int i = 0; i < expected.length; i++) {
+      for (int j = 0; j < expected.length; j++) {
+        assertEquals(expected[i][j], actual[i][j], 1e-6);
+        assertEquals(expected[i][j] == Double.POSITIVE_INFINITY, hops[i][j] == -1);
+        if (hops[i][j] != -1) {
+          double cost = 0;
+          for (int at = i; at != j; at = hops[at][j]) {
+            cost += graph.getEdgeWeight(order[at], order[hops[at][j]]);
+          }
+          assertEquals(actual[i][j], cost, 1e-6);
+        }
+      }
+    }
+    double diameter = 0;
+    for (double[] row : expected) {
+      for (double cost : row) {
+        diameter = Math.max(diameter, cost);
+      }
+    }
+    assertEquals(diameter, dynamic.getDiameter(), 1e-6);
+  }
+
+  public void testBadArguments() {
+    try {
+      new JohnsonAllPairs<String>().shortestPaths(graph, new int[3][3]);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      new FloydAllPairs<String>(0);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      new JohnsonAllPairs<String>(0);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+}
@@ -0,0 +1,154 @@
+
+package tests;
+
+import java.util.ArrayList;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import structures.BFSSearcher;
+import structures.CompressedSparseRowGraph;
+import structures.DFSSearcher;
+import structures.NeighborVisitor;
+import structures.Vertex;
+import structures.WeightedAdjMatrixDiGraph;
+import structures.WeightedAdjMatrixGraph;
+
+public class TestCompressedSparseRowGraph extends TestCase {
+  private WeightedAdjMatrixGraph<String> source = null;
+
+  private CompressedSparseRowGraph<String> graph = null;
+
+  private Vertex<String> a, b, c, d, e;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    source = new WeightedAdjMatrixGraph<String>();
+    a = new Vertex<String>("A");
+    b = new Vertex<String>("B");
+    c = new Vertex<String>("C");
+    d = new Vertex<String>("D");
+    e = new Vertex<String>("E");
+    source.addVertex(a);
+    source.addVertex(b);
+    source.addVertex(c);
+    source.addVertex(d);
+    source.addVertex(e);
+    source.addEdge(a, 3, b);
+    source.addEdge(b, 1, c);
+    source.addEdge(a, 7, c);
+    source.addEdge(c, 2, d);
+    graph = new CompressedSparseRowGraph<String>(source);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    graph = null;
+    source = null;
+    super.tearDown();
+  }
+
+  public void testCounts() {
+    assertEquals(5, graph.getNumberOfVertices());
+    assertEquals(4, graph.getNumberOfEdges());
+    assertEquals(5, graph.getVertices().length);
+  }
+
+  public void testNeighbors() {
+    ArrayList<Vertex<String>> neighbors = (ArrayList<Vertex<String>>) graph.getNeighbors(c);
+    assertEquals(3, neighbors.size());
+    assertTrue(neighbors.contains(a));
+    assertTrue(neighbors.contains(b));
+    assertTrue(neighbors.contains(d));
+
+    neighbors = (ArrayList<Vertex<String>>) graph.getNeighbors(e);
+    assertEquals(0, neighbors.size());
+  }
+
+  public void testEdgeWeights() {
+    assertEquals(3.0, graph.getEdgeWeight(a, b), .05);
+    assertEquals(3.0, graph.getEdgeWeight(b, a), .05);
+    assertEquals(2.0, graph.getEdgeWeight(new Vertex<String>("D"), c), .05);
+    assertEquals(0.0, graph.getEdgeWeight(a, e), .05);
+  }
+
+  public void testDirectedSource() {
+    final WeightedAdjMatrixDiGraph<String> digraph = new WeightedAdjMatrixDiGraph<String>();
+    digraph.addVertex(a);
+    digraph.addVertex(b);
+    digraph.addEdge(a, 4.0, b);
+    final CompressedSparseRowGraph<String> csr = new CompressedSparseRowGraph<String>(digraph);
+    assertEquals(1, csr.getNumberOfEdges());
+    assertEquals(1, csr.getNeighbors(a).size());
+    assertEquals(0, csr.getNeighbors(b).size());
+    assertEquals(4.0, csr.getEdgeWeight(a, b), .05);
+  }
+
+  public void testMinimalPath() {
+    assertEquals(source.minimalPath(a, d), graph.minimalPath(a, d), .05);
+    assertEquals(6.0, graph.minimalPath(a, d), .05);
+    assertEquals(-1.0, graph.minimalPath(a, e), .05);
+  }
+
+  public void testSearchers() {
+    final BFSSearcher<String> bfs = new BFSSearcher<String>(graph);
+    assertTrue(bfs.containsPath(a, d));
+    assertEquals(2, bfs.getPathLength(a, d));
+    assertFalse(bfs.containsPath(a, e));
+
+    final DFSSearcher<String> dfs = new DFSSearcher<String>(graph);
+    assertTrue(dfs.containsPath(a, d));
+    assertFalse(dfs.containsPath(d, e));
+  }
+
+  public void testImmutable() {
+    try {
+      graph.addVertex(new Vertex<String>("F"));
+      Assert.fail("exception should have been thrown");
+    } catch (final UnsupportedOperationException ex) {
+    }
+    try {
+      graph.setEdgeWeight(a, 1.0, b);
+      Assert.fail("exception should have been thrown");
+    } catch (final UnsupportedOperationException ex) {
+    }
+    try {
+      graph.removeEdge(a, b);
+      Assert.fail("exception should have been thrown");
+    } catch (final UnsupportedOperationException ex) {
+    }
+  }
+
+  public void testMissingVertex() {
+    try {
+      graph.getNeighbors(new Vertex<String>("Poo"));
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      graph.getNeighbors(null);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+
+  public void testSlots() {
+    assertEquals(5, graph.getCapacity());
+    final int slot = graph.indexOf(c);
+    assertSame(c, graph.vertexAt(slot));
+    assertEquals(3, graph.degree(slot));
+    assertTrue(graph.hasEdge(slot, graph.indexOf(d)));
+    assertFalse(graph.hasEdge(slot, graph.indexOf(e)));
+    assertEquals(-1, graph.indexOf(new Vertex<String>("Poo")));
+
+    final int[] count = new int[1];
+    graph.forEachNeighbor(slot, new NeighborVisitor() {
+      @Override
+      public void visit(final int neighbor) {
+        count[0]++;
+      }
+    });
+    assertEquals(3, count[0]);
+  }
+}
@@ -0,0 +1,122 @@
+
+package tests;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import structures.ConcurrentWeightedGraph;
+import structures.Vertex;
+import structures.WeightedAdjMatrixGraph;
+
+public class TestConcurrentWeightedGraph extends TestCase {
+  private ConcurrentWeightedGraph<String> graph = null;
+
+  private Vertex<String> a, b, c, d;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    graph = new ConcurrentWeightedGraph<String>(new WeightedAdjMatrixGraph<String>(), 2);
+    a = new Vertex<String>("A");
+    b = new Vertex<String>("B");
+    c = new Vertex<String>("C");
+    d = new Vertex<String>("D");
+    graph.addVertex(a);
+    graph.addVertex(b);
+    graph.addVertex(c);
+    graph.addVertex(d);
+    graph.addEdge(a, 3, b);
+    graph.addEdge(b, 1, c);
+    graph.addEdge(a, 7, c);
+    graph.addEdge(c, 2, d);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    graph = null;
+    super.tearDown();
+  }
+
+  public void testDelegates() {
+    assertEquals(4, graph.getNumberOfVertices());
+    assertEquals(4, graph.getNumberOfEdges());
+    assertEquals(3, graph.getNeighbors(c).size());
+    assertEquals(3.0, graph.getEdgeWeight(b, a), .05);
+    assertEquals(6.0, graph.minimalPath(a, d), .05);
+
+    graph.setEdgeWeight(a, 1.0, c);
+    assertEquals(1.0, graph.getEdgeWeight(c, a), .05);
+    assertEquals(3.0, graph.minimalPath(a, d), .05);
+  }
+
+  public void testSlotsFollowRemoval() {
+    graph.removeVertex(b);
+    assertEquals(-1, graph.indexOf(b));
+    assertSame(c, graph.vertexAt(graph.indexOf(c)));
+    assertEquals(2, graph.degree(graph.indexOf(c)));
+    assertEquals(2, graph.getNumberOfEdges());
+
+    final Vertex<String> e = new Vertex<String>("E");
+    graph.addVertex(e);
+    graph.addEdge(e, 4.0, d);
+    assertSame(e, graph.vertexAt(graph.indexOf(e)));
+    assertEquals(4.0, graph.getEdgeWeight(graph.indexOf(d), graph.indexOf(e)), .05);
+  }
+
+  public void testMissingVertex() {
+    try {
+      graph.getNeighbors(new Vertex<String>("Poo"));
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      graph.setEdgeWeight(a, 1.0, null);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      new ConcurrentWeightedGraph<String>(null);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+
+  public void testConcurrentReadersAndWriter() throws InterruptedException {
+    final int rounds = 2000;
+    final Throwable[] failure = new Throwable[1];
+    final Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final boolean writer = t == 0;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < rounds; i++) {
+              if (writer) {
+                graph.setEdgeWeight(a, 1 + i % 5, b);
+              } else {
+                final double weight = graph.getEdgeWeight(b, a);
+                if (weight < 1.0 || weight > 5.0) {
+                  throw new AssertionError("torn weight " + weight);
+                }
+                if (graph.getNeighbors(a).size() != 2) {
+                  throw new AssertionError("lost an edge");
+                }
+              }
+            }
+          } catch (final Throwable ex) {
+            synchronized (failure) {
+              failure[0] = ex;
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(failure[0]);
+    assertEquals(4, graph.getNumberOfEdges());
+  }
+}
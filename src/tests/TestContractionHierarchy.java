@@ -0,0 +1,148 @@
+package tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import structures.ContractionHierarchy;
+import structures.DijkstraEngine;
+import structures.Vertex;
+import structures.WeightedAdjMatrixDiGraph;
+import structures.WeightedAdjMatrixGraph;
+
+public class TestContractionHierarchy extends TestCase {
+  private WeightedAdjMatrixDiGraph<String> digraph = null;
+
+  private WeightedAdjMatrixGraph<String> undirected = null;
+
+  private Vertex<String>[] vertices;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    final Random random = new Random(342);
+    digraph = new WeightedAdjMatrixDiGraph<String>();
+    undirected = new WeightedAdjMatrixGraph<String>();
+    vertices = new Vertex[80];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = new Vertex<String>("V" + i);
+      digraph.addVertex(vertices[i]);
+      undirected.addVertex(vertices[i]);
+    }
+    for (int edge = 0; edge < 3 * vertices.length; edge++) {
+      final int from = random.nextInt(vertices.length);
+      final int to = random.nextInt(vertices.length);
+      if (from != to && !digraph.hasEdge(from, to)) {
+        digraph.addEdge(vertices[from], 1 + random.nextInt(50), vertices[to]);
+      }
+      if (from != to && !undirected.hasEdge(from, to)) {
+        undirected.addEdge(vertices[from], 1 + random.nextInt(50), vertices[to]);
+      }
+    }
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    digraph = null;
+    undirected = null;
+    vertices = null;
+    super.tearDown();
+  }
+
+  public void testAgreesWithDijkstra() {
+    final ContractionHierarchy<String> directed = ContractionHierarchy.build(digraph);
+    final ContractionHierarchy<String> both = ContractionHierarchy.build(undirected);
+    final DijkstraEngine<String> directedEngine = new DijkstraEngine<String>(digraph);
+    final DijkstraEngine<String> undirectedEngine = new DijkstraEngine<String>(undirected);
+    assertEquals(vertices.length, directed.getNumberOfVertices());
+    for (int i = 0; i < vertices.length; i++) {
+      for (int j = 0; j < vertices.length; j++) {
+        assertEquals(directedEngine.minimalPath(vertices[i], vertices[j]),
+                     directed.minimalPath(vertices[i], vertices[j]), .05);
+        assertEquals(undirectedEngine.minimalPath(vertices[i], vertices[j]),
+                     both.minimalPath(vertices[i], vertices[j]), .05);
+      }
+    }
+    assertEquals(0.0, both.minimalPath(vertices[3], vertices[3]), .05);
+    assertEquals(-1.0, both.minimalPath(vertices[3], new Vertex<String>("Poo")), .05);
+  }
+
+  public void testCities() {
+    // the road distances of distances.txt
+    final int[][] roads = {{0, 4, 50}, {0, 5, 95}, {1, 5, 62}, {1, 6, 89}, {2, 7, 71},
+        {3, 9, 79}, {4, 8, 28}, {4, 9, 181}, {5, 6, 79}, {6, 7, 282}, {6, 8, 31},
+        {7, 9, 202}, {8, 9, 153}};
+    final WeightedAdjMatrixGraph<String> cities = new WeightedAdjMatrixGraph<String>();
+    final Vertex<String>[] towns = new Vertex[10];
+    for (int i = 0; i < towns.length; i++) {
+      towns[i] = new Vertex<String>("T" + i);
+      cities.addVertex(towns[i]);
+    }
+    for (int[] road : roads) {
+      cities.addEdge(towns[road[0]], road[2], towns[road[1]]);
+    }
+    final ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(cities);
+    // Aberdeen to Spokane by way of Olympia, Tacoma and Seattle
+    assertEquals(391.0, hierarchy.minimalPath(towns[0], towns[7]), .05);
+    assertEquals(391.0, hierarchy.minimalPath(towns[7], towns[0]), .05);
+  }
+
+  public void testUnreachable() {
+    final WeightedAdjMatrixDiGraph<String> line = new WeightedAdjMatrixDiGraph<String>();
+    final Vertex<String> first = new Vertex<String>("A");
+    final Vertex<String> second = new Vertex<String>("B");
+    final Vertex<String> alone = new Vertex<String>("C");
+    line.addVertex(first);
+    line.addVertex(second);
+    line.addVertex(alone);
+    line.addEdge(first, 4, second);
+    final ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(line);
+    assertEquals(4.0, hierarchy.minimalPath(first, second), .05);
+    assertEquals(-1.0, hierarchy.minimalPath(second, first), .05);
+    assertEquals(-1.0, hierarchy.minimalPath(first, alone), .05);
+    assertEquals(Double.POSITIVE_INFINITY, hierarchy.distance(2, 0), .05);
+  }
+
+  public void testSaveAndLoad() throws IOException {
+    vertices[5].setLocation(47.6062, -122.3321);
+    final ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(digraph);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    hierarchy.save(out);
+    final ContractionHierarchy<String> loaded =
+        ContractionHierarchy.load(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(hierarchy.getNumberOfVertices(), loaded.getNumberOfVertices());
+    assertEquals(hierarchy.getShortcutCount(), loaded.getShortcutCount());
+    for (int i = 0; i < vertices.length; i++) {
+      for (int j = 0; j < vertices.length; j++) {
+        assertEquals(hierarchy.distance(i, j), loaded.distance(i, j), .05);
+      }
+    }
+    // labels are restored, so the original vertices find their slots
+    assertEquals(hierarchy.minimalPath(vertices[5], vertices[9]),
+                 loaded.minimalPath(new Vertex<String>("V5"), new Vertex<String>("V9")), .05);
+
+    try {
+      ContractionHierarchy.load(new ByteArrayInputStream(new byte[] {1, 2, 3, 4}));
+      Assert.fail("exception should have been thrown");
+    } catch (final IOException ex) {
+    }
+  }
+
+  public void testErrors() {
+    try {
+      ContractionHierarchy.build(null);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    final ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(undirected);
+    try {
+      hierarchy.minimalPath(new Vertex<String>("Poo"), vertices[0]);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+}
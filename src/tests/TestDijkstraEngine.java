@@ -0,0 +1,394 @@
+
+package tests;
+
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import structures.AStarEngine;
+import structures.BidirectionalDijkstra;
+import structures.DijkstraEngine;
+import structures.EmptyHeapException;
+import structures.GreatCircleHeuristic;
+import structures.Heuristic;
+import structures.IndexedMinHeap;
+import structures.LandmarkHeuristic;
+import structures.ShortestPathTree;
+import structures.Vertex;
+import structures.WeightedAdjMatrixDiGraph;
+import structures.WeightedAdjMatrixGraph;
+
+public class TestDijkstraEngine extends TestCase {
+  private WeightedAdjMatrixGraph<String> graph = null;
+
+  private Vertex<String> a, b, c, d, e;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    graph = new WeightedAdjMatrixGraph<String>();
+    a = new Vertex<String>("A");
+    b = new Vertex<String>("B");
+    c = new Vertex<String>("C");
+    d = new Vertex<String>("D");
+    e = new Vertex<String>("E");
+    graph.addVertex(a);
+    graph.addVertex(b);
+    graph.addVertex(c);
+    graph.addVertex(d);
+    graph.addVertex(e);
+    graph.addEdge(a, 3, b);
+    graph.addEdge(b, 1, c);
+    graph.addEdge(a, 7, c);
+    graph.addEdge(c, 2, d);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    graph = null;
+    super.tearDown();
+  }
+
+  public void testHeapOrder() {
+    final IndexedMinHeap heap = new IndexedMinHeap(6);
+    heap.insert(4, 9.0);
+    heap.insert(1, 3.0);
+    heap.insert(5, 7.0);
+    heap.insert(0, 8.0);
+    heap.decreaseKey(4, 1.0);
+    assertTrue(heap.contains(5));
+    assertFalse(heap.contains(2));
+    assertEquals(7.0, heap.keyOf(5), .05);
+    assertEquals(1.0, heap.topKey(), .05);
+    assertEquals(4, heap.top());
+    assertEquals(1, heap.top());
+    assertEquals(5, heap.top());
+    assertEquals(0, heap.top());
+    assertTrue(heap.isEmpty());
+    try {
+      heap.top();
+      Assert.fail("exception should have been thrown");
+    } catch (final EmptyHeapException ex) {
+    }
+  }
+
+  public void testHeapErrors() {
+    final IndexedMinHeap heap = new IndexedMinHeap(2);
+    heap.insert(1, 2.0);
+    try {
+      heap.insert(1, 1.0);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      heap.decreaseKey(1, 5.0);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    heap.clear();
+    assertFalse(heap.contains(1));
+    heap.ensureCapacity(10);
+    heap.insert(9, 1.0);
+    assertEquals(9, heap.top());
+  }
+
+  public void testMinimalPath() {
+    final DijkstraEngine<String> engine = new DijkstraEngine<String>(graph);
+    assertEquals(6.0, engine.minimalPath(a, d), .05);
+    assertEquals(0.0, engine.minimalPath(c, c), .05);
+    assertEquals(-1.0, engine.minimalPath(a, e), .05);
+    assertEquals(-1.0, engine.minimalPath(a, new Vertex<String>("Poo")), .05);
+    // a reused engine forgets the previous query
+    assertEquals(3.0, engine.minimalPath(d, b), .05);
+    assertEquals(4.0, engine.minimalPath(a, c), .05);
+    try {
+      engine.minimalPath(new Vertex<String>("Poo"), a);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+
+  public void testGraphGrowsBetweenQueries() {
+    final DijkstraEngine<String> engine = new DijkstraEngine<String>(graph);
+    assertEquals(6.0, engine.minimalPath(a, d), .05);
+    Vertex<String> previous = e;
+    for (int i = 0; i < 20; i++) {
+      final Vertex<String> next = new Vertex<String>("F" + i);
+      graph.addVertex(next);
+      graph.addEdge(previous, 1.0, next);
+      previous = next;
+    }
+    graph.addEdge(d, 1.0, e);
+    assertEquals(27.0, engine.minimalPath(a, previous), .05);
+  }
+
+  public void testAgreesWithFloyd() {
+    final Random random = new Random(342);
+    final WeightedAdjMatrixDiGraph<String> digraph = new WeightedAdjMatrixDiGraph<String>();
+    final Vertex<String>[] vertices = new Vertex[40];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = new Vertex<String>("V" + i);
+      digraph.addVertex(vertices[i]);
+    }
+    final double[][] expected = new double[vertices.length][vertices.length];
+    for (int i = 0; i < vertices.length; i++) {
+      for (int j = 0; j < vertices.length; j++) {
+        expected[i][j] = i == j ? 0.0 : Double.POSITIVE_INFINITY;
+        if (i != j && random.nextInt(8) == 0) {
+          expected[i][j] = 1 + random.nextInt(50);
+          digraph.addEdge(vertices[i], expected[i][j], vertices[j]);
+        }
+      }
+    }
+    for (int k = 0; k < vertices.length; k++) {
+      for (int i = 0; i < vertices.length; i++) {
+        for (int j = 0; j < vertices.length; j++) {
+          expected[i][j] = Math.min(expected[i][j], expected[i][k] + expected[k][j]);
+        }
+      }
+    }
+
+    final DijkstraEngine<String> engine = new DijkstraEngine<String>(digraph);
+    for (int i = 0; i < vertices.length; i++) {
+      for (int j = 0; j < vertices.length; j++) {
+        assertEquals(expected[i][j], engine.distance(i, j), .05);
+      }
+    }
+  }
+
+  public void testShortestPathTree() {
+    final ShortestPathTree<String> tree = graph.shortestPathTree(a);
+    assertSame(a, tree.getSource());
+    assertEquals(0.0, tree.getDistance(a), .05);
+    assertEquals(3.0, tree.getDistance(b), .05);
+    assertEquals(4.0, tree.getDistance(c), .05);
+    assertEquals(6.0, tree.getDistance(d), .05);
+    assertEquals(-1.0, tree.getDistance(e), .05);
+    assertFalse(tree.hasPathTo(e));
+    assertEquals(-1, tree.getPredecessor(graph.indexOf(a)));
+    assertEquals(graph.indexOf(c), tree.getPredecessor(graph.indexOf(d)));
+
+    final List<Vertex<String>> path = tree.getPath(d);
+    assertEquals(4, path.size());
+    assertSame(a, path.get(0));
+    assertSame(b, path.get(1));
+    assertSame(c, path.get(2));
+    assertSame(d, path.get(3));
+    assertEquals(1, tree.getPath(a).size());
+    assertTrue(tree.getPath(e).isEmpty());
+
+    // the tree agrees with point-to-point queries from the same source
+    for (Vertex<String> v : graph.getVertices()) {
+      assertEquals(graph.minimalPath(a, v), tree.getDistance(v), .05);
+    }
+  }
+
+  public void testBidirectionalAgreesWithDijkstra() {
+    final Random random = new Random(342);
+    final WeightedAdjMatrixDiGraph<String> digraph = new WeightedAdjMatrixDiGraph<String>();
+    final WeightedAdjMatrixGraph<String> undirected = new WeightedAdjMatrixGraph<String>();
+    final Vertex<String>[] vertices = new Vertex[60];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = new Vertex<String>("V" + i);
+      digraph.addVertex(vertices[i]);
+      undirected.addVertex(vertices[i]);
+    }
+    for (int edge = 0; edge < 3 * vertices.length; edge++) {
+      final int from = random.nextInt(vertices.length);
+      final int to = random.nextInt(vertices.length);
+      if (from != to && !digraph.hasEdge(from, to)) {
+        digraph.addEdge(vertices[from], 1 + random.nextInt(50), vertices[to]);
+      }
+      if (from != to && !undirected.hasEdge(from, to)) {
+        undirected.addEdge(vertices[from], 1 + random.nextInt(50), vertices[to]);
+      }
+    }
+
+    final DijkstraEngine<String> directedEngine = new DijkstraEngine<String>(digraph);
+    final BidirectionalDijkstra<String> directedSearch =
+        new BidirectionalDijkstra<String>(digraph);
+    final DijkstraEngine<String> undirectedEngine = new DijkstraEngine<String>(undirected);
+    final BidirectionalDijkstra<String> undirectedSearch =
+        new BidirectionalDijkstra<String>(undirected);
+    for (int i = 0; i < vertices.length; i++) {
+      for (int j = 0; j < vertices.length; j++) {
+        assertEquals(directedEngine.minimalPath(vertices[i], vertices[j]),
+                     directedSearch.minimalPath(vertices[i], vertices[j]), .05);
+        assertEquals(undirectedEngine.minimalPath(vertices[i], vertices[j]),
+                     undirectedSearch.minimalPath(vertices[i], vertices[j]), .05);
+      }
+    }
+  }
+
+  public void testBidirectionalSettlesFewer() {
+    // on a grid a plain search settles a diamond around the source; the
+    // bidirectional search settles two diamonds of half the radius
+    final int side = 21;
+    final WeightedAdjMatrixGraph<String> grid = new WeightedAdjMatrixGraph<String>();
+    final Vertex<String>[] cells = new Vertex[side * side];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = new Vertex<String>("G" + i);
+      grid.addVertex(cells[i]);
+      if (i % side > 0) {
+        grid.addEdge(cells[i - 1], 1.0, cells[i]);
+      }
+      if (i >= side) {
+        grid.addEdge(cells[i - side], 1.0, cells[i]);
+      }
+    }
+    final Vertex<String> first = cells[10 * side + 2];
+    final Vertex<String> last = cells[10 * side + 18];
+    final DijkstraEngine<String> engine = new DijkstraEngine<String>(grid);
+    final BidirectionalDijkstra<String> search = new BidirectionalDijkstra<String>(grid);
+    assertEquals(16.0, engine.minimalPath(first, last), .05);
+    assertEquals(16.0, search.minimalPath(first, last), .05);
+    assertTrue(search.getSettledCount() < engine.getSettledCount() * 2 / 3);
+    assertEquals(0.0, search.minimalPath(first, first), .05);
+    assertEquals(-1.0, search.minimalPath(first, new Vertex<String>("Poo")), .05);
+  }
+
+  public void testAStarSettlesFewer() {
+    final int side = 21;
+    final WeightedAdjMatrixGraph<String> grid = new WeightedAdjMatrixGraph<String>();
+    final Vertex<String>[] cells = new Vertex[side * side];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = new Vertex<String>("G" + i);
+      grid.addVertex(cells[i]);
+      if (i % side > 0) {
+        grid.addEdge(cells[i - 1], 1.0, cells[i]);
+      }
+      if (i >= side) {
+        grid.addEdge(cells[i - side], 1.0, cells[i]);
+      }
+    }
+    // the Manhattan distance is consistent on a grid of unit edges
+    final AStarEngine<String> astar = new AStarEngine<String>(grid, new Heuristic() {
+      @Override
+      public double estimate(final int slot, final int dest) {
+        return Math.abs(slot / side - dest / side) + Math.abs(slot % side - dest % side);
+      }
+    });
+    final DijkstraEngine<String> engine = new DijkstraEngine<String>(grid);
+    for (int dest = 0; dest < cells.length; dest += 7) {
+      assertEquals(engine.minimalPath(cells[220], cells[dest]),
+                   astar.minimalPath(cells[220], cells[dest]), .05);
+    }
+    engine.minimalPath(cells[10 * side + 2], cells[10 * side + 18]);
+    astar.minimalPath(cells[10 * side + 2], cells[10 * side + 18]);
+    assertTrue(astar.getSettledCount() < engine.getSettledCount() / 4);
+  }
+
+  public void testLandmarkHeuristic() {
+    final Random random = new Random(342);
+    final WeightedAdjMatrixDiGraph<String> digraph = new WeightedAdjMatrixDiGraph<String>();
+    final Vertex<String>[] vertices = new Vertex[60];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = new Vertex<String>("V" + i);
+      digraph.addVertex(vertices[i]);
+    }
+    for (int edge = 0; edge < 3 * vertices.length; edge++) {
+      final int from = random.nextInt(vertices.length);
+      final int to = random.nextInt(vertices.length);
+      if (from != to && !digraph.hasEdge(from, to)) {
+        digraph.addEdge(vertices[from], 1 + random.nextInt(50), vertices[to]);
+      }
+    }
+    final LandmarkHeuristic landmarks = new LandmarkHeuristic(digraph, 4);
+    assertEquals(4, landmarks.getLandmarks().length);
+    assertEquals(2 * 4 * 8 * digraph.getCapacity(), landmarks.getMemoryBytes());
+    final AStarEngine<String> alt = new AStarEngine<String>(digraph, landmarks);
+    final DijkstraEngine<String> engine = new DijkstraEngine<String>(digraph);
+    for (int i = 0; i < vertices.length; i++) {
+      for (int j = 0; j < vertices.length; j++) {
+        final double cost = engine.minimalPath(vertices[i], vertices[j]);
+        if (cost >= 0) {
+          assertTrue(landmarks.estimate(i, j) <= cost);
+        }
+        assertEquals(cost, alt.minimalPath(vertices[i], vertices[j]), .05);
+      }
+    }
+
+    // on a grid the landmarks fall in the corners and bound well
+    final int side = 21;
+    final WeightedAdjMatrixGraph<String> grid = new WeightedAdjMatrixGraph<String>();
+    final Vertex<String>[] cells = new Vertex[side * side];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = new Vertex<String>("G" + i);
+      grid.addVertex(cells[i]);
+      if (i % side > 0) {
+        grid.addEdge(cells[i - 1], 1.0, cells[i]);
+      }
+      if (i >= side) {
+        grid.addEdge(cells[i - side], 1.0, cells[i]);
+      }
+    }
+    final LandmarkHeuristic corners = new LandmarkHeuristic(grid, 4);
+    assertEquals(4 * 8 * grid.getCapacity(), corners.getMemoryBytes());
+    final AStarEngine<String> gridAlt = new AStarEngine<String>(grid, corners);
+    final DijkstraEngine<String> gridEngine = new DijkstraEngine<String>(grid);
+    assertEquals(16.0, gridAlt.minimalPath(cells[10 * side + 2], cells[10 * side + 18]), .05);
+    gridEngine.minimalPath(cells[10 * side + 2], cells[10 * side + 18]);
+    assertTrue(gridAlt.getSettledCount() < gridEngine.getSettledCount() / 2);
+
+    try {
+      new LandmarkHeuristic(grid, 0);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      new LandmarkHeuristic(grid, cells.length + 1);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+
+  public void testGreatCircleHeuristic() {
+    // the cities and road distances of distances.txt
+    final String[] names = {"Aberdeen", "Bellingham", "Colville", "Kennewick", "Olympia",
+        "Port Angeles", "Seattle", "Spokane", "Tacoma", "Yakima"};
+    final double[][] locations = {{46.9754, -123.8157}, {48.7519, -122.4787},
+        {48.5466, -117.9055}, {46.2112, -119.1372}, {47.0379, -122.9007},
+        {48.1181, -123.4307}, {47.6062, -122.3321}, {47.6588, -117.4260},
+        {47.2529, -122.4443}, {46.6021, -120.5059}};
+    final int[][] roads = {{0, 4, 50}, {0, 5, 95}, {1, 5, 62}, {1, 6, 89}, {2, 7, 71},
+        {3, 9, 79}, {4, 8, 28}, {4, 9, 181}, {5, 6, 79}, {6, 7, 282}, {6, 8, 31},
+        {7, 9, 202}, {8, 9, 153}};
+    final WeightedAdjMatrixGraph<String> cities = new WeightedAdjMatrixGraph<String>();
+    final Vertex<String>[] vertices = new Vertex[names.length];
+    for (int i = 0; i < names.length; i++) {
+      vertices[i] = new Vertex<String>(names[i]);
+      vertices[i].setLocation(locations[i][0], locations[i][1]);
+      cities.addVertex(vertices[i]);
+    }
+    for (int[] road : roads) {
+      cities.addEdge(vertices[road[0]], road[2], vertices[road[1]]);
+    }
+
+    final GreatCircleHeuristic heuristic = new GreatCircleHeuristic(cities);
+    // Seattle to Spokane is about 228 miles as the crow flies
+    assertEquals(228.0, heuristic.estimate(6, 7), 2.0);
+    final AStarEngine<String> astar = new AStarEngine<String>(cities, heuristic);
+    final DijkstraEngine<String> engine = new DijkstraEngine<String>(cities);
+    for (int i = 0; i < names.length; i++) {
+      for (int j = 0; j < names.length; j++) {
+        final double cost = engine.minimalPath(vertices[i], vertices[j]);
+        assertTrue(heuristic.estimate(i, j) <= cost);
+        assertEquals(cost, astar.minimalPath(vertices[i], vertices[j]), .05);
+      }
+    }
+
+    // a vertex with no location is estimated at 0
+    final Vertex<String> nowhere = new Vertex<String>("Nowhere");
+    assertFalse(nowhere.hasLocation());
+    cities.addVertex(nowhere);
+    assertEquals(0.0, new GreatCircleHeuristic(cities).estimate(0, cities.indexOf(nowhere)),
+                 .05);
+    try {
+      nowhere.setLocation(91, 0);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+}
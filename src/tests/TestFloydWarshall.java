@@ -0,0 +1,167 @@
+
+package tests;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import structures.CompactFloydWarshall;
+import structures.FloydWarshall;
+import structures.Vertex;
+import structures.WeightedAdjMatrixGraph;
+
+public class TestFloydWarshall extends TestCase {
+
+  private static final int SIZE = 37;
+
+  private double[] source = null;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    final Random random = new Random(342);
+    source = new double[SIZE * SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        if (i == j) {
+          source[i * SIZE + j] = 0.0;
+        } else if (random.nextInt(6) == 0) {
+          source[i * SIZE + j] = 1 + random.nextInt(100);
+        } else {
+          source[i * SIZE + j] = Double.POSITIVE_INFINITY;
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    source = null;
+    super.tearDown();
+  }
+
+  public void testBlockedMatchesSimple() {
+    final double[] expected = source.clone();
+    FloydWarshall.simple(expected, SIZE);
+    // tiles that divide SIZE, that do not, and that cover the whole matrix
+    for (int tile : new int[] {1, 5, 8, 37, 64}) {
+      final double[] actual = source.clone();
+      FloydWarshall.blocked(actual, SIZE, tile);
+      for (int cell = 0; cell < expected.length; cell++) {
+        assertEquals(expected[cell], actual[cell], .05);
+      }
+    }
+  }
+
+  public void testMatchesGraphFloyd() {
+    final WeightedAdjMatrixGraph<String> graph = new WeightedAdjMatrixGraph<String>();
+    final Vertex<String>[] vertices = new Vertex[6];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = new Vertex<String>("V" + i);
+      graph.addVertex(vertices[i]);
+    }
+    graph.addEdge(vertices[0], 4, vertices[1]);
+    graph.addEdge(vertices[1], 1, vertices[2]);
+    graph.addEdge(vertices[0], 9, vertices[2]);
+    graph.addEdge(vertices[3], 2, vertices[4]);
+    graph.removeVertex(vertices[5]);
+
+    final double[][] expected = WeightedAdjMatrixGraph.floydShortestPaths(graph);
+    final double[] dist = FloydWarshall.distanceMatrix(graph);
+    final int n = expected.length;
+    assertEquals(n * n, dist.length);
+    FloydWarshall.blocked(dist, n, 2);
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        assertEquals(expected[i][j], dist[i * n + j], .05);
+      }
+    }
+  }
+
+  public void testParallelIsBitIdentical() {
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int tile : new int[] {1, 5, 8, 64}) {
+        final double[] expected = source.clone();
+        FloydWarshall.blocked(expected, SIZE, tile);
+        final double[] actual = source.clone();
+        FloydWarshall.parallel(actual, SIZE, tile, pool);
+        assertTrue(Arrays.equals(expected, actual));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  public void testParallelGraphFloyd() {
+    final Random random = new Random(342);
+    final WeightedAdjMatrixGraph<String> graph = new WeightedAdjMatrixGraph<String>();
+    final Vertex<String>[] vertices = new Vertex[SIZE];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = new Vertex<String>("V" + i);
+      graph.addVertex(vertices[i]);
+      for (int j = 0; j < i; j++) {
+        if (random.nextInt(5) == 0) {
+          graph.addEdge(vertices[i], random.nextDouble() * 100, vertices[j]);
+        }
+      }
+    }
+
+    final int[][] expected_hops = new int[SIZE][SIZE];
+    final double[][] expected = WeightedAdjMatrixGraph.floydShortestPaths(graph, expected_hops);
+    final int[][] actual_hops = new int[SIZE][SIZE];
+    assertTrue(Arrays.deepEquals(expected,
+        WeightedAdjMatrixGraph.floydShortestPaths(graph, actual_hops, 4)));
+    assertTrue(Arrays.deepEquals(expected_hops, actual_hops));
+    assertTrue(Arrays.deepEquals(expected,
+        WeightedAdjMatrixGraph.floydShortestPaths(graph, null, 3)));
+  }
+
+  public void testCompactMatchesDouble() {
+    final double[] expected = source.clone();
+    FloydWarshall.blocked(expected, SIZE, 8);
+    final float[] floats = CompactFloydWarshall.toFloat(source);
+    CompactFloydWarshall.blocked(floats, SIZE, 8);
+    final int[] ints = CompactFloydWarshall.toInt(source);
+    CompactFloydWarshall.blocked(ints, SIZE, 5);
+    for (int cell = 0; cell < expected.length; cell++) {
+      assertEquals((float) expected[cell], floats[cell], .05);
+      if (expected[cell] == Double.POSITIVE_INFINITY) {
+        assertEquals(CompactFloydWarshall.INT_NO_EDGE, ints[cell]);
+      } else {
+        assertEquals((int) expected[cell], ints[cell]);
+      }
+    }
+  }
+
+  public void testBadArguments() {
+    try {
+      FloydWarshall.blocked(source, SIZE, 0);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      FloydWarshall.simple(source, SIZE - 1);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      FloydWarshall.parallel(source, SIZE, 0);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      CompactFloydWarshall.toInt(new double[] {-1.0});
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      CompactFloydWarshall.blocked(new float[4], 3);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+}
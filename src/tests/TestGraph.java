@@ -411,4 +411,34 @@ public class TestGraph extends TestCase {
     assertTrue(thePath.contains(v6));
   }
 
+  /**
+   * Edges whose slots fall in different words of a packed row must all be
+   * found, counted and removed.
+   */
+  public void testWideGraph() {
+    final Vertex<String>[] wide = new Vertex[150];
+    for (int i = 0; i < wide.length; i++) {
+      wide[i] = new Vertex<String>("w" + i);
+      graph.addVertex(wide[i]);
+    }
+    graph.addEdge(wide[0], wide[63]);
+    graph.addEdge(wide[0], wide[64]);
+    graph.addEdge(wide[0], wide[149]);
+    graph.addEdge(wide[130], wide[64]);
+    assertEquals(4, graph.getNumberOfEdges());
+    assertEquals(3, graph.degree(graph.indexOf(wide[0])));
+    assertEquals(2, graph.degree(graph.indexOf(wide[64])));
+    final ArrayList<Vertex<String>> neighbors =
+        (ArrayList<Vertex<String>>) graph.getNeighbors(wide[0]);
+    assertEquals(3, neighbors.size());
+    assertTrue(neighbors.contains(wide[63]));
+    assertTrue(neighbors.contains(wide[64]));
+    assertTrue(neighbors.contains(wide[149]));
+
+    graph.removeVertex(wide[64]);
+    assertEquals(2, graph.getNumberOfEdges());
+    assertEquals(0, graph.getNeighbors(wide[130]).size());
+    assertEquals(2, graph.getNeighbors(wide[0]).size());
+  }
+
 }
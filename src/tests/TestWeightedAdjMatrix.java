@@ -10,6 +10,7 @@ import structures.BFSSearcher;
 import structures.DFSSearcher;
 import structures.Vertex;
 import structures.WeightedAdjMatrixGraph;
+import structures.WeightedNeighborVisitor;
 
 public class TestWeightedAdjMatrix extends TestCase {
   private WeightedAdjMatrixGraph<String> graph1 = null;
@@ -423,4 +424,216 @@ public class TestWeightedAdjMatrix extends TestCase {
     // assertEquals( 6.0, path, .05 );
   }
 
+  public void testWeightsSurviveGrowth() {
+    final WeightedAdjMatrixGraph<String> g = new WeightedAdjMatrixGraph<String>(1);
+    Vertex<String> previous = new Vertex<String>("C0");
+    g.addVertex(previous);
+    for (int i = 1; i < 40; i++) {
+      final Vertex<String> v = new Vertex<String>("C" + i);
+      g.addVertex(v);
+      g.addEdge(previous, i, v);
+      previous = v;
+    }
+    assertEquals(40, g.getNumberOfVertices());
+    assertEquals(39, g.getNumberOfEdges());
+    assertEquals(1.0, g.getEdgeWeight(new Vertex<String>("C0"), new Vertex<String>("C1")), .05);
+    assertEquals(39.0, g.getEdgeWeight(new Vertex<String>("C39"), new Vertex<String>("C38")),
+                 .05);
+    assertEquals(39.0 * 40 / 2, g.minimalPath(new Vertex<String>("C0"), previous), .05);
+    g.trimToSize();
+    assertEquals(40, g.getCapacity());
+    assertEquals(5.0, g.getEdgeWeight(new Vertex<String>("C4"), new Vertex<String>("C5")), .05);
+  }
+
+  public void testSymmetricWeights() {
+    graph2.addVertex(v4);
+    graph2.addEdge(v3, 2.5, v1);
+    graph2.addEdge(v2, 4.0, v4);
+    assertEquals(2.5, graph2.getEdgeWeight(v1, v3), .05);
+    assertEquals(2.5, graph2.getEdgeWeight(v3, v1), .05);
+    graph2.setEdgeWeight(v4, 6.0, v2);
+    assertEquals(6.0, graph2.getEdgeWeight(v2, v4), .05);
+
+    // v2 has one neighbor stored before it and one after it in the triangle
+    graph2.addEdge(v1, 1.0, v2);
+    ArrayList<Vertex<String>> neighbors = (ArrayList<Vertex<String>>) graph2.getNeighbors(v2);
+    assertEquals(2, neighbors.size());
+    assertTrue(neighbors.contains(v1));
+    assertTrue(neighbors.contains(v4));
+
+    graph2.removeVertex(v2);
+    assertEquals(1, graph2.getNumberOfEdges());
+    neighbors = (ArrayList<Vertex<String>>) graph2.getNeighbors(v1);
+    assertEquals(1, neighbors.size());
+    assertTrue(neighbors.contains(v3));
+    assertEquals(0, graph2.getNeighbors(v4).size());
+  }
+
+  public void testSelfLoopRemoval() {
+    graph2.addEdge(v1, 3.0, v1);
+    graph2.addEdge(v1, 2.0, v2);
+    assertEquals(2, graph2.getNumberOfEdges());
+    graph2.removeVertex(v1);
+    assertEquals(0, graph2.getNumberOfEdges());
+  }
+
+  public void testForEachNeighbor() {
+    graph2.addVertex(v4);
+    graph2.addEdge(v2, 5.0, v1);
+    graph2.addEdge(v2, 2.0, v4);
+    final int slot = graph2.indexOf(v2);
+    assertEquals(2, graph2.degree(slot));
+
+    final double[] seen = new double[graph2.getCapacity()];
+    graph2.forEachNeighbor(slot, new WeightedNeighborVisitor() {
+      @Override
+      public void visit(final int neighbor, final double weight) {
+        seen[neighbor] += weight;
+      }
+    });
+    assertEquals(5.0, seen[graph2.indexOf(v1)], .05);
+    assertEquals(2.0, seen[graph2.indexOf(v4)], .05);
+    assertEquals(0.0, seen[graph2.indexOf(v3)], .05);
+    assertEquals(5.0, graph2.getEdgeWeight(graph2.indexOf(v1), slot), .05);
+  }
+
+  public void testFloydAfterRemoval() {
+    graph2.addVertex(v4);
+    graph2.addEdge(v1, 5.0, v2);
+    graph2.addEdge(v2, 1.0, v3);
+    graph2.addEdge(v3, 2.0, v4);
+    graph2.addEdge(v1, 9.0, v4);
+    graph2.removeVertex(v2);
+
+    // getVertices() and floydShortestPaths() agree on the order: v1, v3, v4
+    double[][] paths = WeightedAdjMatrixGraph.floydShortestPaths(graph2);
+    assertEquals(3, paths.length);
+    assertEquals(9.0, paths[0][2], .05);
+    assertEquals(11.0, paths[0][1], .05);
+
+    // compacting moves v4 into the hole left by v2: v1, v4, v3
+    graph2.compact();
+    assertEquals(v4, graph2.getVertices()[1]);
+    paths = WeightedAdjMatrixGraph.floydShortestPaths(graph2);
+    assertEquals(9.0, paths[0][1], .05);
+    assertEquals(11.0, paths[0][2], .05);
+    assertEquals(2.0, graph2.getEdgeWeight(v4, v3), .05);
+    assertEquals(1, graph2.getNeighbors(v3).size());
+  }
+
+
+  public void testAddAllMatrix() {
+    final Vertex<String> v5 = new Vertex("v5");
+    final Vertex[] loaded = {v4, v5};
+    final double[][] weights = { {-1, 6}, {2, -1}};
+    graph2.addEdge(v1, 1, v2);
+    graph2.addAll(loaded, weights);
+    assertEquals(5, graph2.getNumberOfVertices());
+    // only the lower triangle is read for an undirected graph
+    assertEquals(2, graph2.getNumberOfEdges());
+    assertEquals(2.0, graph2.getEdgeWeight(v4, v5), .05);
+    assertEquals(2.0, graph2.getEdgeWeight(v5, v4), .05);
+    assertEquals(1, graph2.getNeighbors(v4).size());
+
+    try {
+      graph2.addAll(new Vertex[] {new Vertex("v6"), v1}, new double[2][2]);
+      fail("exception should have been thrown");
+    } catch (final IllegalArgumentException e) {
+    }
+    try {
+      graph2.addAll(new Vertex[] {new Vertex("v6")}, new double[1][2]);
+      fail("exception should have been thrown");
+    } catch (final IllegalArgumentException e) {
+    }
+    assertEquals(5, graph2.getNumberOfVertices());
+  }
+
+  public void testAddAllEdgeList() {
+    final Vertex[] loaded = {v4, new Vertex("v5"), new Vertex("v6")};
+    graph1.addAll(loaded, new int[] {0, 1}, new int[] {1, 2}, new double[] {3, 4});
+    assertEquals(3, graph1.getNumberOfVertices());
+    assertEquals(2, graph1.getNumberOfEdges());
+    assertEquals(7.0, graph1.minimalPath(v4, loaded[2]), .05);
+
+    // the reverse of an undirected edge is a duplicate; nothing is kept,
+    // not even the room the new vertices would have needed
+    final int capacity = graph1.getCapacity();
+    final Vertex[] more = new Vertex[capacity];
+    for (int i = 0; i < more.length; i++) {
+      more[i] = new Vertex("w" + i);
+    }
+    try {
+      graph1.addAll(more, new int[] {0, 1}, new int[] {1, 0}, new double[] {1, 1});
+      fail("exception should have been thrown");
+    } catch (final IllegalArgumentException e) {
+    }
+    assertEquals(3, graph1.getNumberOfVertices());
+    assertEquals(2, graph1.getNumberOfEdges());
+    assertEquals(-1, graph1.indexOf(more[0]));
+    assertEquals(capacity, graph1.getCapacity());
+    try {
+      graph1.addAll(more, new int[] {0}, new int[] {1}, new double[] {-2});
+      fail("exception should have been thrown");
+    } catch (final IllegalArgumentException e) {
+    }
+  }
+
+  public void testFloydRoutes() {
+    // v1 - v2 - v3 is cheaper than the direct v1 - v3 edge
+    graph2.addVertex(v4);
+    graph2.addEdge(v1, 2, v2);
+    graph2.addEdge(v2, 3, v3);
+    graph2.addEdge(v1, 9, v3);
+    final int[][] next = new int[4][4];
+    final double[][] paths = WeightedAdjMatrixGraph.floydShortestPaths(graph2, next);
+    assertEquals(5.0, paths[0][2], .05);
+
+    int[] route = WeightedAdjMatrixGraph.floydRoute(next, 0, 2);
+    assertEquals(3, route.length);
+    assertEquals(0, route[0]);
+    assertEquals(1, route[1]);
+    assertEquals(2, route[2]);
+    route = WeightedAdjMatrixGraph.floydRoute(next, 2, 0);
+    assertEquals(3, route.length);
+    assertEquals(1, route[1]);
+    assertEquals(1, WeightedAdjMatrixGraph.floydRoute(next, 3, 3).length);
+    assertEquals(0, WeightedAdjMatrixGraph.floydRoute(next, 0, 3).length);
+
+    // the routes and the costs agree
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        route = WeightedAdjMatrixGraph.floydRoute(next, i, j);
+        double cost = 0;
+        for (int hop = 1; hop < route.length; hop++) {
+          cost += graph2.getEdgeWeight(graph2.getVertices()[route[hop - 1]],
+                                       graph2.getVertices()[route[hop]]);
+        }
+        assertEquals(paths[i][j], cost, .05);
+      }
+    }
+
+    try {
+      WeightedAdjMatrixGraph.floydShortestPaths(graph2, new int[3][4]);
+      fail("exception should have been thrown");
+    } catch (final IllegalArgumentException e) {
+    }
+  }
+
+  public void testCapacityLimit() {
+    try {
+      new WeightedAdjMatrixGraph<String>(WeightedAdjMatrixGraph.MAX_CAPACITY + 1);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    graph2.addEdge(v1, 4.0, v2);
+    final int capacity = graph2.getCapacity();
+    try {
+      graph2.ensureCapacity(WeightedAdjMatrixGraph.MAX_CAPACITY + 1);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    // a failed growth leaves the graph as it was
+    assertEquals(capacity, graph2.getCapacity());
+    assertEquals(4.0, graph2.getEdgeWeight(v1, v2), .05);
+  }
 }
@@ -251,4 +251,76 @@ public class TestWeightedAdjMatrixDiGraph extends TestCase {
     assertFalse(thepath.contains(v2));
     assertFalse(thepath.contains(v4));
   }
+
+  public void testZeroWeightEdge() {
+    graph.addEdge(v1, 0.0, v2);
+    assertEquals(1, graph.getNumberOfEdges());
+    assertEquals(0.0, graph.getEdgeWeight(v1, v2), .05);
+    assertTrue(graph.getNeighbors(v1).contains(v2));
+    graph.removeEdge(v1, v2);
+    assertEquals(0, graph.getNumberOfEdges());
+    assertEquals(0, graph.getNeighbors(v1).size());
+  }
+
+  public void testSetWeightOfMissingEdge() {
+    graph.addEdge(v1, 2.0, v2);
+    graph.setEdgeWeight(v1, 7.0, v2);
+    assertEquals(7.0, graph.getEdgeWeight(v1, v2), .05);
+    try {
+      graph.setEdgeWeight(v2, 3.0, v1); // only v1 -> v2 exists
+      fail("exception should have been thrown for a missing edge");
+    } catch (final IllegalArgumentException e) {
+      // do nothing - this is good news
+    }
+    assertEquals(1, graph.getNumberOfEdges());
+    assertEquals(0.0, graph.getEdgeWeight(v2, v1), .05);
+  }
+
+  public void testCompact() {
+    v4 = new Vertex("v4");
+    graph.addVertex(v4);
+    v5 = new Vertex("v5");
+    graph.addVertex(v5);
+    graph.addEdge(v5, 4.0, v2);
+    graph.addEdge(v2, 3.0, v5);
+    graph.addEdge(v4, 2.0, v5);
+    graph.addEdge(v5, 6.0, v5);
+    graph.removeVertex(v1);
+    graph.removeVertex(v3);
+    assertEquals(3, graph.getNumberOfVertices());
+    assertEquals(4, graph.getNumberOfEdges());
+
+    graph.compact();
+    assertEquals(3, graph.getNumberOfVertices());
+    assertEquals(4, graph.getNumberOfEdges());
+    for (int slot = 0; slot < 3; slot++) {
+      assertNotNull(graph.vertexAt(slot));
+    }
+    assertEquals(4.0, graph.getEdgeWeight(v5, v2), .05);
+    assertEquals(3.0, graph.getEdgeWeight(v2, v5), .05);
+    assertEquals(2.0, graph.getEdgeWeight(v4, v5), .05);
+    assertEquals(6.0, graph.getEdgeWeight(v5, v5), .05);
+    assertEquals(0.0, graph.getEdgeWeight(v5, v4), .05);
+    assertEquals(2, graph.getNeighbors(v5).size());
+    assertEquals(3, graph.getVertices().length);
+
+    graph.trimToSize();
+    assertEquals(3, graph.getCapacity());
+    assertEquals(4.0, graph.getEdgeWeight(v5, v2), .05);
+  }
+
+  public void testAddAll() {
+    final WeightedAdjMatrixDiGraph<String> graph = new WeightedAdjMatrixDiGraph<String>(0);
+    final Vertex[] loaded = {new Vertex("a"), new Vertex("b"), new Vertex("c")};
+    final double[][] weights = { {-1, 6, -1}, {2, 0, -1}, {Double.POSITIVE_INFINITY, 5, -1}};
+    graph.addAll(loaded, weights);
+    assertEquals(3, graph.getCapacity());
+    assertEquals(3, graph.getNumberOfVertices());
+    assertEquals(4, graph.getNumberOfEdges());
+    assertEquals(6.0, graph.getEdgeWeight(loaded[0], loaded[1]), .05);
+    assertEquals(2.0, graph.getEdgeWeight(loaded[1], loaded[0]), .05);
+    assertTrue(graph.hasEdge(1, 1));
+    assertFalse(graph.hasEdge(2, 0));
+    assertEquals(1, graph.getNeighbors(loaded[2]).size());
+  }
 }
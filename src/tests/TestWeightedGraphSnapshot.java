@@ -0,0 +1,164 @@
+
+package tests;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import structures.CompressedSparseRowGraph;
+import structures.ConcurrentWeightedGraph;
+import structures.SnapshotEditor;
+import structures.Vertex;
+import structures.VersionedWeightedGraph;
+import structures.WeightedAdjMatrixDiGraph;
+import structures.WeightedAdjMatrixGraph;
+import structures.WeightedGraphSnapshot;
+
+public class TestWeightedGraphSnapshot extends TestCase {
+  private WeightedAdjMatrixGraph<String> source = null;
+
+  private Vertex<String> a, b, c, d;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    source = new WeightedAdjMatrixGraph<String>();
+    a = new Vertex<String>("A");
+    b = new Vertex<String>("B");
+    c = new Vertex<String>("C");
+    d = new Vertex<String>("D");
+    source.addVertex(a);
+    source.addVertex(b);
+    source.addVertex(c);
+    source.addVertex(d);
+    source.addEdge(a, 3, b);
+    source.addEdge(b, 1, c);
+    source.addEdge(a, 7, c);
+    source.addEdge(c, 2, d);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    source = null;
+    super.tearDown();
+  }
+
+  public void testFreeze() {
+    final WeightedGraphSnapshot<String> snapshot = WeightedGraphSnapshot.freeze(source);
+    assertTrue(snapshot.isUndirected());
+    assertEquals(0L, snapshot.getVersion());
+    assertEquals(4, snapshot.getNumberOfEdges());
+    assertEquals(3, snapshot.getNeighbors(c).size());
+    assertEquals(7.0, snapshot.getEdgeWeight(c, a), .05);
+    assertEquals(0.0, snapshot.getEdgeWeight(a, d), .05);
+    assertEquals(source.minimalPath(a, d), snapshot.minimalPath(a, d), .05);
+
+    source.setEdgeWeight(a, 1.0, b);
+    assertEquals(3.0, snapshot.getEdgeWeight(a, b), .05);
+  }
+
+  public void testEditSharesUntouchedRows() {
+    final WeightedGraphSnapshot<String> v0 = WeightedGraphSnapshot.freeze(source);
+    final SnapshotEditor<String> editor = v0.edit();
+    editor.setEdgeWeight(a, 1.0, c);
+    editor.addEdge(b, 9.0, d);
+    editor.removeEdge(c, d);
+    final WeightedGraphSnapshot<String> v1 = editor.build();
+
+    assertEquals(1L, v1.getVersion());
+    assertEquals(4, v1.getNumberOfEdges());
+    assertEquals(1.0, v1.getEdgeWeight(c, a), .05);
+    assertEquals(9.0, v1.getEdgeWeight(d, b), .05);
+    assertFalse(v1.hasEdge(v1.indexOf(c), v1.indexOf(d)));
+    assertEquals(11.0, v1.minimalPath(a, d), .05);
+
+    // the old version is unchanged
+    assertEquals(7.0, v0.getEdgeWeight(a, c), .05);
+    assertEquals(0.0, v0.getEdgeWeight(b, d), .05);
+    assertEquals(6.0, v0.minimalPath(a, d), .05);
+
+    try {
+      editor.addEdge(a, 1.0, d);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalStateException ex) {
+    }
+  }
+
+  public void testEditErrors() {
+    final SnapshotEditor<String> editor = WeightedGraphSnapshot.freeze(source).edit();
+    try {
+      editor.setEdgeWeight(a, 1.0, d);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      editor.addEdge(a, 1.0, b);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      editor.addEdge(a, -1.0, d);
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+    try {
+      editor.removeEdge(a, new Vertex<String>("Poo"));
+      Assert.fail("exception should have been thrown");
+    } catch (final IllegalArgumentException ex) {
+    }
+  }
+
+  public void testDirected() {
+    final WeightedAdjMatrixDiGraph<String> digraph = new WeightedAdjMatrixDiGraph<String>();
+    digraph.addVertex(a);
+    digraph.addVertex(b);
+    digraph.addEdge(a, 4.0, b);
+    final SnapshotEditor<String> editor = WeightedGraphSnapshot.freeze(digraph).edit();
+    editor.addEdge(b, 2.0, a);
+    editor.setEdgeWeight(a, 5.0, b);
+    final WeightedGraphSnapshot<String> snapshot = editor.build();
+    assertFalse(snapshot.isUndirected());
+    assertEquals(5.0, snapshot.getEdgeWeight(a, b), .05);
+    assertEquals(2.0, snapshot.getEdgeWeight(b, a), .05);
+    assertEquals(2, snapshot.getNumberOfEdges());
+  }
+
+  public void testWrappedUndirected() {
+    final ConcurrentWeightedGraph<String> shared = new ConcurrentWeightedGraph<String>(source);
+    final SnapshotEditor<String> editor = WeightedGraphSnapshot.freeze(shared).edit();
+    editor.setEdgeWeight(a, 5.0, b);
+    editor.addEdge(b, 4.0, d);
+    final WeightedGraphSnapshot<String> snapshot = editor.build();
+    assertTrue(snapshot.isUndirected());
+    assertEquals(5.0, snapshot.getEdgeWeight(b, a), .05);
+    assertEquals(4.0, snapshot.getEdgeWeight(d, b), .05);
+
+    final CompressedSparseRowGraph<String> csr = new CompressedSparseRowGraph<String>(source);
+    assertTrue(csr.isUndirected());
+    assertTrue(WeightedGraphSnapshot.freeze(csr).isUndirected());
+  }
+
+  public void testPublish() {
+    final VersionedWeightedGraph<String> versions = new VersionedWeightedGraph<String>(source);
+    final WeightedGraphSnapshot<String> reader = versions.current();
+
+    final SnapshotEditor<String> first = versions.current().edit();
+    final SnapshotEditor<String> second = versions.current().edit();
+    first.setEdgeWeight(a, 1.0, b);
+    second.setEdgeWeight(a, 2.0, b);
+    assertTrue(versions.publish(first));
+    assertFalse(versions.publish(second));
+
+    assertEquals(1.0, versions.current().getEdgeWeight(a, b), .05);
+    assertEquals(3.0, reader.getEdgeWeight(a, b), .05);
+    assertEquals(1L, versions.current().getVersion());
+  }
+
+  public void testImmutable() {
+    final WeightedGraphSnapshot<String> snapshot = WeightedGraphSnapshot.freeze(source);
+    try {
+      snapshot.setEdgeWeight(a, 1.0, b);
+      Assert.fail("exception should have been thrown");
+    } catch (final UnsupportedOperationException ex) {
+    }
+  }
+}